@@ -20,16 +20,26 @@ import android.app.Activity;
 import android.app.AlertDialog;
 import android.content.ComponentName;
 import android.content.DialogInterface;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
 import android.graphics.Color;
+import android.graphics.Path;
 import android.net.Uri;
 import android.os.Bundle;
 import android.support.wearable.companion.WatchFaceCompanion;
 import android.util.Log;
+import android.util.LruCache;
 import android.view.View;
 import android.widget.AdapterView;
+import android.widget.ImageView;
 import android.widget.Spinner;
 import android.widget.TextView;
 
+import com.chriscartland.watchface.shared.AndroidFaceCanvas;
+import com.chriscartland.watchface.shared.FacePalette;
+import com.chriscartland.watchface.shared.FaceTime;
+import com.chriscartland.watchface.shared.UTCFaceRenderer;
+import com.chriscartland.watchface.shared.WatchFaceConfig;
 import com.google.android.gms.common.ConnectionResult;
 import com.google.android.gms.common.api.GoogleApiClient;
 import com.google.android.gms.common.api.ResultCallback;
@@ -43,22 +53,42 @@ import com.google.android.gms.wearable.Wearable;
  * The phone-side config activity for {@code DigitalWatchFaceService}. Like the watch-side config
  * activity ({@code DigitalWatchFaceWearableConfigActivity}), allows for setting the background
  * color. Additionally, enables setting the color for hour, minute and second digits.
+ * <p>
+ * The UTC face is previewed with the watch's own rendering code at the shape and size the watch
+ * reports, so a color choice shows up without waiting for the watch.
  */
 public class DigitalWatchFaceCompanionConfigActivity extends Activity
         implements GoogleApiClient.ConnectionCallbacks, GoogleApiClient.OnConnectionFailedListener,
                 ResultCallback<DataApi.DataItemResult> {
     private static final String TAG = "DigitalWatchFaceConfig";
 
-    // TODO: use the shared constants (needs covering all the samples with Gradle build model)
-    private static final String KEY_BACKGROUND_COLOR = "BACKGROUND_COLOR";
-    private static final String KEY_HOURS_COLOR = "HOURS_COLOR";
-    private static final String KEY_MINUTES_COLOR = "MINUTES_COLOR";
-    private static final String KEY_SECONDS_COLOR = "SECONDS_COLOR";
-    private static final String PATH_WITH_FEATURE = "/watch_face_config/Digital";
+    /** The preview screen until the watch reports its own: a round hdpi watch. */
+    private static final int DEFAULT_SCREEN_SIZE_PX = 320;
+    private static final float DEFAULT_HOUR_TEXT_SIZE_PX = 52.5f;
+
+    private static final int PREVIEW_CACHE_SIZE_BYTES = 4 * 1024 * 1024;
 
     private GoogleApiClient mGoogleApiClient;
     private String mPeerId;
 
+    private ImageView mPreview;
+    private final UTCFaceRenderer mPreviewRenderer = new UTCFaceRenderer();
+    private final AndroidFaceCanvas mPreviewCanvas = new AndroidFaceCanvas();
+    private final FacePalette mPreviewPalette = new FacePalette();
+    private final FaceTime mPreviewTime = new FaceTime();
+    private boolean mPreviewRound;
+    private int mPreviewWidth;
+    private int mPreviewHeight;
+
+    /** Rendered previews, keyed by palette and the minute they show. */
+    private final LruCache<String, Bitmap> mPreviewCache =
+            new LruCache<String, Bitmap>(PREVIEW_CACHE_SIZE_BYTES) {
+                @Override
+                protected int sizeOf(String key, Bitmap preview) {
+                    return preview.getByteCount();
+                }
+            };
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -75,6 +105,11 @@ public class DigitalWatchFaceCompanionConfigActivity extends Activity
                 WatchFaceCompanion.EXTRA_WATCH_FACE_COMPONENT);
         TextView label = (TextView)findViewById(R.id.label);
         label.setText(label.getText() + " (" + name.getClassName() + ")");
+
+        mPreview = (ImageView) findViewById(R.id.preview);
+        setPreviewScreen(true, DEFAULT_SCREEN_SIZE_PX, DEFAULT_SCREEN_SIZE_PX,
+                DEFAULT_HOUR_TEXT_SIZE_PX, DEFAULT_HOUR_TEXT_SIZE_PX);
+        updatePreview();
     }
 
     @Override
@@ -99,7 +134,8 @@ public class DigitalWatchFaceCompanionConfigActivity extends Activity
 
         if (mPeerId != null) {
             Uri.Builder builder = new Uri.Builder();
-            Uri uri = builder.scheme("wear").path(PATH_WITH_FEATURE).authority(mPeerId).build();
+            Uri uri = builder.scheme("wear").path(WatchFaceConfig.PATH_WITH_FEATURE)
+                    .authority(mPeerId).build();
             Wearable.DataApi.getDataItem(mGoogleApiClient, uri).setResultCallback(this);
         } else {
             displayNoConnectedDeviceDialog();
@@ -112,6 +148,7 @@ public class DigitalWatchFaceCompanionConfigActivity extends Activity
             DataItem configDataItem = dataItemResult.getDataItem();
             DataMapItem dataMapItem = DataMapItem.fromDataItem(configDataItem);
             DataMap config = dataMapItem.getDataMap();
+            setUpPreview(config);
             setUpAllPickers(config);
         } else {
             // If DataItem with the current config can't be retrieved, select the default items on
@@ -149,25 +186,30 @@ public class DigitalWatchFaceCompanionConfigActivity extends Activity
 
     /**
      * Sets up selected items for all pickers according to given {@code config} and sets up their
-     * item selection listeners.
+     * item selection listeners. Colors missing from {@code config} default to the ones the watch
+     * draws with (see {@link FacePalette}), so that the pickers show what is on the watch.
      *
      * @param config the {@code DigitalWatchFaceService} config {@link DataMap}. If null, the
      *         default items are selected.
      */
     private void setUpAllPickers(DataMap config) {
-        setUpColorPickerSelection(R.id.background, KEY_BACKGROUND_COLOR, config,
-                R.string.color_black);
-        setUpColorPickerSelection(R.id.hours, KEY_HOURS_COLOR, config, R.string.color_white);
-        setUpColorPickerSelection(R.id.minutes, KEY_MINUTES_COLOR, config, R.string.color_white);
-        setUpColorPickerSelection(R.id.seconds, KEY_SECONDS_COLOR, config, R.string.color_gray);
+        int background = setUpColorPickerSelection(R.id.background,
+                WatchFaceConfig.KEY_BACKGROUND_COLOR, config, R.string.color_black);
+        int hours = setUpColorPickerSelection(R.id.hours, WatchFaceConfig.KEY_HOURS_COLOR, config,
+                R.string.color_white);
+        int minutes = setUpColorPickerSelection(R.id.minutes, WatchFaceConfig.KEY_MINUTES_COLOR,
+                config, R.string.color_red);
+        int seconds = setUpColorPickerSelection(R.id.seconds, WatchFaceConfig.KEY_SECONDS_COLOR,
+                config, R.string.color_gray);
 
-        setUpColorPickerListener(R.id.background, KEY_BACKGROUND_COLOR);
-        setUpColorPickerListener(R.id.hours, KEY_HOURS_COLOR);
-        setUpColorPickerListener(R.id.minutes, KEY_MINUTES_COLOR);
-        setUpColorPickerListener(R.id.seconds, KEY_SECONDS_COLOR);
+        setUpColorPickerListener(R.id.background, WatchFaceConfig.KEY_BACKGROUND_COLOR, background);
+        setUpColorPickerListener(R.id.hours, WatchFaceConfig.KEY_HOURS_COLOR, hours);
+        setUpColorPickerListener(R.id.minutes, WatchFaceConfig.KEY_MINUTES_COLOR, minutes);
+        setUpColorPickerListener(R.id.seconds, WatchFaceConfig.KEY_SECONDS_COLOR, seconds);
     }
 
-    private void setUpColorPickerSelection(int spinnerId, final String configKey, DataMap config,
+    /** Selects the color for {@code configKey} in the spinner and returns it. */
+    private int setUpColorPickerSelection(int spinnerId, final String configKey, DataMap config,
             int defaultColorNameResId) {
         String defaultColorName = getString(defaultColorNameResId);
         int defaultColor = Color.parseColor(defaultColorName);
@@ -185,15 +227,28 @@ public class DigitalWatchFaceCompanionConfigActivity extends Activity
                 break;
             }
         }
+        return color;
     }
 
-    private void setUpColorPickerListener(int spinnerId, final String configKey) {
+    private void setUpColorPickerListener(int spinnerId, final String configKey,
+            final int selectedColor) {
         Spinner spinner = (Spinner) findViewById(spinnerId);
         spinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            private int mSelectedColor = selectedColor;
+
             @Override
             public void onItemSelected(AdapterView<?> adapterView, View view, int pos, long id) {
                 final String colorName = (String) adapterView.getItemAtPosition(pos);
-                sendConfigUpdateMessage(configKey, Color.parseColor(colorName));
+                int color = Color.parseColor(colorName);
+                // The spinner reports its initial selection during layout. Only send colors the
+                // user picked, so that opening this screen doesn't change the watch.
+                if (color == mSelectedColor) {
+                    return;
+                }
+                mSelectedColor = color;
+                sendConfigUpdateMessage(configKey, color);
+                mPreviewPalette.setColorForKey(configKey, color);
+                updatePreview();
             }
 
             @Override
@@ -206,7 +261,8 @@ public class DigitalWatchFaceCompanionConfigActivity extends Activity
             DataMap config = new DataMap();
             config.putInt(configKey, color);
             byte[] rawData = config.toByteArray();
-            Wearable.MessageApi.sendMessage(mGoogleApiClient, mPeerId, PATH_WITH_FEATURE, rawData);
+            Wearable.MessageApi.sendMessage(mGoogleApiClient, mPeerId,
+                    WatchFaceConfig.PATH_WITH_FEATURE, rawData);
 
             if (Log.isLoggable(TAG, Log.DEBUG)) {
                 Log.d(TAG, "Sent watch face config message: " + configKey + " -> "
@@ -214,4 +270,69 @@ public class DigitalWatchFaceCompanionConfigActivity extends Activity
             }
         }
     }
+
+    /**
+     * Previews the face with the colors in {@code config}, at the screen shape and size the
+     * watch stored there.
+     */
+    private void setUpPreview(DataMap config) {
+        for (String configKey : config.keySet()) {
+            if (WatchFaceConfig.isColorKey(configKey)) {
+                mPreviewPalette.setColorForKey(configKey, config.getInt(configKey));
+            }
+        }
+        if (config.containsKey(WatchFaceConfig.KEY_SCREEN_WIDTH)) {
+            setPreviewScreen(config.getBoolean(WatchFaceConfig.KEY_SCREEN_ROUND, true),
+                    config.getInt(WatchFaceConfig.KEY_SCREEN_WIDTH, DEFAULT_SCREEN_SIZE_PX),
+                    config.getInt(WatchFaceConfig.KEY_SCREEN_HEIGHT, DEFAULT_SCREEN_SIZE_PX),
+                    config.getFloat(WatchFaceConfig.KEY_HOUR_TEXT_SIZE,
+                            DEFAULT_HOUR_TEXT_SIZE_PX),
+                    config.getFloat(WatchFaceConfig.KEY_BIG_HOUR_TEXT_SIZE,
+                            DEFAULT_HOUR_TEXT_SIZE_PX));
+        }
+        updatePreview();
+    }
+
+    private void setPreviewScreen(boolean isRound, int width, int height, float hourTextSize,
+            float bigHourTextSize) {
+        mPreviewRound = isRound;
+        mPreviewWidth = width;
+        mPreviewHeight = height;
+        mPreviewRenderer.setTextSizes(isRound, hourTextSize, bigHourTextSize);
+        mPreviewCache.evictAll();
+    }
+
+    /**
+     * Shows the face as the watch draws it at the current time with the selected colors.
+     * Previews are cached per palette for the minute they show, so switching back to an earlier
+     * choice doesn't draw again.
+     */
+    private void updatePreview() {
+        mPreviewTime.set(System.currentTimeMillis());
+        String key = mPreviewPalette + "@" + mPreviewTime.getHour() + ":"
+                + mPreviewTime.getMinute();
+        Bitmap preview = mPreviewCache.get(key);
+        if (preview == null) {
+            preview = renderPreview();
+            mPreviewCache.put(key, preview);
+        }
+        mPreview.setImageBitmap(preview);
+    }
+
+    private Bitmap renderPreview() {
+        Bitmap preview = Bitmap.createBitmap(mPreviewWidth, mPreviewHeight,
+                Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(preview);
+        if (mPreviewRound) {
+            // Round screens with a flat bottom are a circle as wide as the screen, cut off.
+            Path screen = new Path();
+            float radius = mPreviewWidth / 2f;
+            screen.addCircle(radius, radius, radius, Path.Direction.CW);
+            canvas.clipPath(screen);
+        }
+        mPreviewCanvas.setCanvas(canvas);
+        mPreviewRenderer.setPalette(mPreviewPalette);
+        mPreviewRenderer.draw(mPreviewCanvas, mPreviewTime, mPreviewWidth, mPreviewHeight);
+        return preview;
+    }
 }
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2015 Chris Cartland. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.chriscartland.watchface.screenshots;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/** One image to render: a screen, a mode and a local time. */
+public class Frame {
+
+    private final ScreenSpec mScreen;
+    private final FaceMode mMode;
+    private final int mHour;
+    private final int mMinute;
+
+    public Frame(ScreenSpec screen, FaceMode mode, int hour, int minute) {
+        mScreen = screen;
+        mMode = mode;
+        mHour = hour;
+        mMinute = minute;
+    }
+
+    /** Returns every combination of screen, mode, hour of the day and one of {@code minutes}. */
+    public static List<Frame> all(int[] minutes) {
+        List<Frame> frames = new ArrayList<Frame>();
+        for (ScreenSpec screen : ScreenSpec.values()) {
+            for (FaceMode mode : FaceMode.values()) {
+                for (int hour = 0; hour < 24; hour++) {
+                    for (int minute : minutes) {
+                        frames.add(new Frame(screen, mode, hour, minute));
+                    }
+                }
+            }
+        }
+        return frames;
+    }
+
+    public ScreenSpec getScreen() {
+        return mScreen;
+    }
+
+    public FaceMode getMode() {
+        return mMode;
+    }
+
+    public int getHour() {
+        return mHour;
+    }
+
+    public int getMinute() {
+        return mMinute;
+    }
+
+    /** Returns the file name for this frame's image, without the extension. */
+    public String getName() {
+        return String.format(Locale.ROOT, "%s-%s-%02dh%02d", mScreen, mMode, mHour, mMinute);
+    }
+
+    @Override
+    public String toString() {
+        return getName();
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2015 Chris Cartland. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.chriscartland.watchface.screenshots;
+
+import com.chriscartland.watchface.shared.AmbientRenderer;
+import com.chriscartland.watchface.shared.FaceTime;
+import com.chriscartland.watchface.shared.UTCFaceRenderer;
+
+import java.awt.image.BufferedImage;
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * Renders {@link Frame}s with the same renderers the watch uses. The renderers and paints are
+ * reused from frame to frame, so use one instance per thread.
+ */
+public class FrameRenderer {
+
+    /**
+     * The local time zone of every frame. It is fixed so that images don't depend on the time
+     * zone of the machine, and it has no daylight saving time so the GMT hour is always 8 ahead.
+     */
+    public static final TimeZone TIME_ZONE = TimeZone.getTimeZone("GMT-08:00");
+
+    private final UTCFaceRenderer mRenderer = new UTCFaceRenderer();
+    private final AmbientRenderer mAmbientRenderer = new AmbientRenderer();
+    private final Java2DFaceCanvas mCanvas = new Java2DFaceCanvas();
+    private final FaceTime mTime = new FaceTime(TIME_ZONE);
+    private final Calendar mCalendar = Calendar.getInstance(TIME_ZONE);
+    private ScreenSpec mScreen;
+
+    public BufferedImage render(Frame frame) {
+        ScreenSpec screen = frame.getScreen();
+        if (screen != mScreen) {
+            mScreen = screen;
+            mRenderer.setTextSizes(screen.isRound(), screen.getHourTextSize(),
+                    screen.getBigHourTextSize());
+            mAmbientRenderer.setTextSizes(screen.isRound(), screen.getHourTextSize(),
+                    screen.getBigHourTextSize());
+        }
+
+        mCalendar.clear();
+        mCalendar.set(2015, Calendar.JANUARY, 1, frame.getHour(), frame.getMinute());
+        mTime.set(mCalendar.getTimeInMillis());
+
+        int width = screen.getWidth();
+        int height = screen.getHeight();
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        mCanvas.begin(image, screen.getClip());
+        switch (frame.getMode()) {
+            case INTERACTIVE:
+            case MUTE:
+                mRenderer.setMute(frame.getMode() == FaceMode.MUTE);
+                mRenderer.draw(mCanvas, mTime, width, height);
+                break;
+            case AMBIENT:
+            case LOW_BIT_AMBIENT:
+                mAmbientRenderer.setMute(false);
+                mAmbientRenderer.setLowBitAmbient(frame.getMode() == FaceMode.LOW_BIT_AMBIENT);
+                mAmbientRenderer.draw(mCanvas, mTime, width, height);
+                break;
+        }
+        mCanvas.finish();
+        return image;
+    }
+}
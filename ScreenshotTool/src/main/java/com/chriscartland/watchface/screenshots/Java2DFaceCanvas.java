@@ -0,0 +1,184 @@
+/*
+ * Copyright 2015 Chris Cartland. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.chriscartland.watchface.screenshots;
+
+import com.chriscartland.watchface.shared.FaceCanvas;
+import com.chriscartland.watchface.shared.FacePaint;
+
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.font.FontRenderContext;
+import java.awt.geom.Line2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.InputStream;
+
+/**
+ * {@link FaceCanvas} that rasterizes into a {@link BufferedImage} with Java2D's software
+ * renderer. The Java2D state for each {@link FacePaint} is built once and kept on the
+ * {@link FacePaint} until one of its properties changes, as {@code AndroidFaceCanvas} does.
+ * <p>
+ * Text uses the DejaVu Sans fonts bundled with this tool rather than the platform's logical
+ * {@code SansSerif} font, which maps to a different font on every machine.
+ * <p>
+ * Instances are not thread safe. Use one per rendering thread.
+ */
+public class Java2DFaceCanvas implements FaceCanvas {
+
+    private static final Font NORMAL_FONT = loadFont("/fonts/DejaVuSans.ttf");
+    private static final Font BOLD_FONT = loadFont("/fonts/DejaVuSans-Bold.ttf");
+
+    /** The Java2D equivalent of an Android {@code Paint}. */
+    private static class Java2DPaint {
+        Color mColor;
+        BasicStroke mStroke;
+        Font mFont;
+        boolean mCenter;
+        boolean mAntiAlias;
+    }
+
+    private final Line2D.Float mLine = new Line2D.Float();
+    private final FontRenderContext mAntiAliasContext = new FontRenderContext(null, true, true);
+    private final FontRenderContext mAliasedContext = new FontRenderContext(null, false, true);
+
+    private Graphics2D mGraphics;
+    private int mWidth;
+    private int mHeight;
+
+    /**
+     * Starts drawing into {@code image}, which must be {@link BufferedImage#TYPE_INT_ARGB}.
+     * Drawing outside {@code clip} leaves the image transparent, like the edge of a round screen.
+     * Call {@link #finish} when the frame is done.
+     */
+    public void begin(BufferedImage image, Shape clip) {
+        mGraphics = image.createGraphics();
+        mGraphics.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS,
+                RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+        mGraphics.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL,
+                RenderingHints.VALUE_STROKE_PURE);
+        if (clip != null) {
+            mGraphics.setClip(clip);
+        }
+        mWidth = image.getWidth();
+        mHeight = image.getHeight();
+    }
+
+    public void finish() {
+        mGraphics.dispose();
+        mGraphics = null;
+    }
+
+    @Override
+    public void drawColor(int color) {
+        mGraphics.setComposite(AlphaComposite.SrcOver);
+        mGraphics.setColor(new Color(color, true));
+        mGraphics.fillRect(0, 0, mWidth, mHeight);
+    }
+
+    @Override
+    public void drawLine(float startX, float startY, float stopX, float stopY, FacePaint paint) {
+        Java2DPaint java2DPaint = toPaint(paint);
+        applyAntiAlias(java2DPaint);
+        mGraphics.setColor(java2DPaint.mColor);
+        mGraphics.setStroke(java2DPaint.mStroke);
+        mLine.setLine(startX, startY, stopX, stopY);
+        mGraphics.draw(mLine);
+    }
+
+    @Override
+    public void drawText(String text, float x, float y, FacePaint paint) {
+        Java2DPaint java2DPaint = toPaint(paint);
+        applyAntiAlias(java2DPaint);
+        mGraphics.setColor(java2DPaint.mColor);
+        mGraphics.setFont(java2DPaint.mFont);
+        if (java2DPaint.mCenter) {
+            x -= measureText(text, java2DPaint) / 2f;
+        }
+        mGraphics.drawString(text, x, y);
+    }
+
+    @Override
+    public float measureText(String text, FacePaint paint) {
+        return measureText(text, toPaint(paint));
+    }
+
+    @Override
+    public int getTextHeight(String text, int start, int end, FacePaint paint) {
+        Java2DPaint java2DPaint = toPaint(paint);
+        Rectangle2D bounds = java2DPaint.mFont
+                .createGlyphVector(getContext(java2DPaint), text.substring(start, end))
+                .getVisualBounds();
+        // Round outwards to whole pixels, as Android's Paint.getTextBounds() does.
+        return (int) Math.ceil(bounds.getMaxY()) - (int) Math.floor(bounds.getMinY());
+    }
+
+    private float measureText(String text, Java2DPaint java2DPaint) {
+        return (float) java2DPaint.mFont
+                .getStringBounds(text, getContext(java2DPaint)).getWidth();
+    }
+
+    private FontRenderContext getContext(Java2DPaint java2DPaint) {
+        return java2DPaint.mAntiAlias ? mAntiAliasContext : mAliasedContext;
+    }
+
+    private void applyAntiAlias(Java2DPaint java2DPaint) {
+        mGraphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, java2DPaint.mAntiAlias
+                ? RenderingHints.VALUE_ANTIALIAS_ON : RenderingHints.VALUE_ANTIALIAS_OFF);
+        mGraphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, java2DPaint.mAntiAlias
+                ? RenderingHints.VALUE_TEXT_ANTIALIAS_ON : RenderingHints.VALUE_TEXT_ANTIALIAS_OFF);
+    }
+
+    private static Font loadFont(String resource) {
+        InputStream in = Java2DFaceCanvas.class.getResourceAsStream(resource);
+        if (in == null) {
+            throw new IllegalStateException("Missing font " + resource);
+        }
+        try {
+            try {
+                return Font.createFont(Font.TRUETYPE_FONT, in);
+            } finally {
+                in.close();
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to load font " + resource, e);
+        }
+    }
+
+    private static Java2DPaint toPaint(FacePaint facePaint) {
+        Object platformPaint = facePaint.getPlatformPaint();
+        if (platformPaint instanceof Java2DPaint && !facePaint.isPlatformPaintStale()) {
+            return (Java2DPaint) platformPaint;
+        }
+        Java2DPaint paint = (platformPaint instanceof Java2DPaint)
+                ? (Java2DPaint) platformPaint : new Java2DPaint();
+        paint.mColor = new Color(facePaint.getColor(), true);
+        paint.mStroke = new BasicStroke(facePaint.getStrokeWidth(),
+                facePaint.isRoundCap() ? BasicStroke.CAP_ROUND : BasicStroke.CAP_BUTT,
+                BasicStroke.JOIN_MITER);
+        paint.mFont = (facePaint.isBold() ? BOLD_FONT : NORMAL_FONT)
+                .deriveFont(facePaint.getTextSize());
+        paint.mCenter = facePaint.getTextAlign() == FacePaint.Align.CENTER;
+        paint.mAntiAlias = facePaint.isAntiAlias();
+        facePaint.setPlatformPaint(paint);
+        return paint;
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2015 Chris Cartland. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.chriscartland.watchface.screenshots;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Compares images the way a person would: two pixels only differ if their colors are further
+ * apart than {@code maxDeltaE} in CIELAB, after compositing both over black like the watch
+ * screen. Small anti-aliasing and font rasterization differences between machines stay below
+ * the threshold, while a moved hand or a changed color does not.
+ */
+public class PerceptualDiff {
+
+    /** The CIE76 color difference a person can just notice. */
+    public static final double JUST_NOTICEABLE_DELTA_E = 2.3;
+
+    private static final int HIGHLIGHT_COLOR = 0xFFFF00FF;
+
+    /** Linear light of each 8-bit sRGB component. */
+    private static final double[] LINEAR = new double[256];
+
+    static {
+        for (int i = 0; i < LINEAR.length; i++) {
+            double c = i / 255.0;
+            LINEAR[i] = (c <= 0.04045) ? c / 12.92 : Math.pow((c + 0.055) / 1.055, 2.4);
+        }
+    }
+
+    private final double mMaxDeltaE;
+
+    public PerceptualDiff(double maxDeltaE) {
+        mMaxDeltaE = maxDeltaE;
+    }
+
+    /**
+     * Returns the fraction of pixels that differ noticeably, from 0 to 1. Images of different
+     * sizes differ completely.
+     */
+    public double compare(BufferedImage expected, BufferedImage actual) {
+        int[] expectedPixels = getPixels(expected);
+        int[] actualPixels = getPixels(actual);
+        if (expectedPixels == null || actualPixels == null
+                || expectedPixels.length != actualPixels.length
+                || expected.getWidth() != actual.getWidth()) {
+            return 1.0;
+        }
+        int different = 0;
+        for (int i = 0; i < expectedPixels.length; i++) {
+            if (isDifferent(expectedPixels[i], actualPixels[i])) {
+                different++;
+            }
+        }
+        return (double) different / expectedPixels.length;
+    }
+
+    /**
+     * Returns {@code actual} dimmed, with the pixels that differ noticeably from
+     * {@code expected} highlighted. The images must be the same size.
+     */
+    public BufferedImage highlight(BufferedImage expected, BufferedImage actual) {
+        int width = actual.getWidth();
+        int height = actual.getHeight();
+        int[] expectedPixels = getPixels(expected);
+        int[] actualPixels = getPixels(actual);
+        int[] diffPixels = new int[actualPixels.length];
+        for (int i = 0; i < actualPixels.length; i++) {
+            if (isDifferent(expectedPixels[i], actualPixels[i])) {
+                diffPixels[i] = HIGHLIGHT_COLOR;
+            } else {
+                diffPixels[i] = 0xFF000000 | ((actualPixels[i] >> 2) & 0x3F3F3F);
+            }
+        }
+        BufferedImage diff = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        diff.setRGB(0, 0, width, height, diffPixels, 0, width);
+        return diff;
+    }
+
+    private boolean isDifferent(int expected, int actual) {
+        if (expected == actual) {
+            return false;
+        }
+        double[] expectedLab = toLab(expected);
+        double[] actualLab = toLab(actual);
+        double dL = expectedLab[0] - actualLab[0];
+        double da = expectedLab[1] - actualLab[1];
+        double db = expectedLab[2] - actualLab[2];
+        return dL * dL + da * da + db * db > mMaxDeltaE * mMaxDeltaE;
+    }
+
+    /** Returns the ARGB pixels of {@code image}, or null if it is missing. */
+    private static int[] getPixels(BufferedImage image) {
+        if (image == null) {
+            return null;
+        }
+        int width = image.getWidth();
+        return image.getRGB(0, 0, width, image.getHeight(), null, 0, width);
+    }
+
+    /** Converts an ARGB color composited over black to CIELAB with a D65 white point. */
+    private static double[] toLab(int argb) {
+        double alpha = (argb >>> 24) / 255.0;
+        double r = LINEAR[(argb >> 16) & 0xFF] * alpha;
+        double g = LINEAR[(argb >> 8) & 0xFF] * alpha;
+        double b = LINEAR[argb & 0xFF] * alpha;
+
+        double x = (0.4124 * r + 0.3576 * g + 0.1805 * b) / 0.95047;
+        double y = 0.2126 * r + 0.7152 * g + 0.0722 * b;
+        double z = (0.0193 * r + 0.1192 * g + 0.9505 * b) / 1.08883;
+
+        double fx = labF(x);
+        double fy = labF(y);
+        double fz = labF(z);
+        return new double[] { 116 * fy - 16, 500 * (fx - fy), 200 * (fy - fz) };
+    }
+
+    private static double labF(double t) {
+        return (t > 216.0 / 24389.0) ? Math.cbrt(t) : (24389.0 / 27.0 * t + 16) / 116;
+    }
+}
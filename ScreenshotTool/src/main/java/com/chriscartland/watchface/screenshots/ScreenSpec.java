@@ -0,0 +1,82 @@
+/*
+ * Copyright 2015 Chris Cartland. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.chriscartland.watchface.screenshots;
+
+import java.awt.Shape;
+import java.awt.geom.Ellipse2D;
+
+/**
+ * The watch screens the face is rendered for. Text sizes follow the Wearable module's
+ * {@code utc_hour_text_size} and {@code utc_big_hour_text_size} dimensions at each density.
+ */
+public enum ScreenSpec {
+    ROUND_320(true, 320, 320, 1.5f),
+    ROUND_320_FLAT(true, 320, 290, 1.5f),
+    ROUND_400(true, 400, 400, 2f),
+    SQUARE_280(false, 280, 280, 1.5f),
+    SQUARE_320(false, 320, 320, 1.5f);
+
+    private static final float HOUR_TEXT_SIZE_DP = 12f;
+    private static final float HOUR_TEXT_SIZE_ROUND_DP = 35f;
+    private static final float BIG_HOUR_TEXT_SIZE_DP = 24f;
+    private static final float BIG_HOUR_TEXT_SIZE_ROUND_DP = 35f;
+
+    private final boolean mRound;
+    private final int mWidth;
+    private final int mHeight;
+    private final float mDensity;
+
+    ScreenSpec(boolean round, int width, int height, float density) {
+        mRound = round;
+        mWidth = width;
+        mHeight = height;
+        mDensity = density;
+    }
+
+    public boolean isRound() {
+        return mRound;
+    }
+
+    public int getWidth() {
+        return mWidth;
+    }
+
+    public int getHeight() {
+        return mHeight;
+    }
+
+    public float getHourTextSize() {
+        return mDensity * (mRound ? HOUR_TEXT_SIZE_ROUND_DP : HOUR_TEXT_SIZE_DP);
+    }
+
+    public float getBigHourTextSize() {
+        return mDensity * (mRound ? BIG_HOUR_TEXT_SIZE_ROUND_DP : BIG_HOUR_TEXT_SIZE_DP);
+    }
+
+    /**
+     * Returns the visible part of the screen, or null when all of it is visible. Round screens
+     * with a flat bottom are a circle as wide as the screen, cut off.
+     */
+    public Shape getClip() {
+        return mRound ? new Ellipse2D.Float(0, 0, mWidth, mWidth) : null;
+    }
+
+    @Override
+    public String toString() {
+        return (mRound ? "round_" : "square_") + mWidth + "x" + mHeight;
+    }
+}
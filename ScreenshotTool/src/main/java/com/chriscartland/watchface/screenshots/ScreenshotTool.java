@@ -0,0 +1,331 @@
+/*
+ * Copyright 2015 Chris Cartland. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.chriscartland.watchface.screenshots;
+
+import com.chriscartland.watchface.shared.FrameTrace;
+import com.chriscartland.watchface.shared.RecordingTraceBackend;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Renders the UTC face for every hour, a sample of minutes, every {@link ScreenSpec} and every
+ * {@link FaceMode} on all cores, and compares each image to its golden image with a
+ * {@link PerceptualDiff}. Exits with status 1 if any image differs or has no golden image, or if
+ * the golden directory holds a file that belongs to no frame, so visual regressions fail the
+ * build, and reports render times so performance regressions show up too. Most of the time goes
+ * to decoding and encoding PNGs rather than to rendering.
+ * <p>
+ * Usage: {@code ScreenshotTool --golden DIR [--out DIR] [--record] [--threshold FRACTION]
+ * [--threads N] [--trace]}
+ * <ul>
+ *   <li>{@code --golden}: the golden images.
+ *   <li>{@code --out}: writes the rendered image of each frame that fails there, with a
+ *       {@code -diff} image for each frame that differs from its golden.
+ *   <li>{@code --record}: writes every rendered image to the golden directory instead of
+ *       comparing. This is the only option that changes the golden images.
+ *   <li>{@code --threshold}: the fraction of pixels that may differ noticeably.
+ *   <li>{@code --threads}: the parallelism of the fork-join pool. Defaults to the core count.
+ *   <li>{@code --trace}: prints the timing of each {@link FrameTrace} section.
+ * </ul>
+ */
+public class ScreenshotTool {
+
+    /** Minutes rendered for every hour: on the hour, between numerals and near the next hour. */
+    private static final int[] MINUTES = { 0, 7, 15, 30, 45, 59 };
+
+    private static final double DEFAULT_THRESHOLD = 0.002;
+
+    /** Frames rendered by one fork-join task before it stops splitting. */
+    private static final int FRAMES_PER_TASK = 8;
+
+    /** The outcome of rendering and checking one frame. */
+    public static class FrameResult {
+
+        public enum Status {
+            MATCHED, DIFFERENT, MISSING, RECORDED
+        }
+
+        private final Frame mFrame;
+        private final Status mStatus;
+        private final double mDifference;
+        private final long mRenderNanos;
+
+        FrameResult(Frame frame, Status status, double difference, long renderNanos) {
+            mFrame = frame;
+            mStatus = status;
+            mDifference = difference;
+            mRenderNanos = renderNanos;
+        }
+
+        public Frame getFrame() {
+            return mFrame;
+        }
+
+        public Status getStatus() {
+            return mStatus;
+        }
+
+        /** Returns the fraction of pixels that differ from the golden image. */
+        public double getDifference() {
+            return mDifference;
+        }
+
+        public long getRenderNanos() {
+            return mRenderNanos;
+        }
+    }
+
+    private final File mGoldenDir;
+    private final File mOutDir;
+    private final boolean mRecord;
+    private final double mThreshold;
+    private final PerceptualDiff mDiff =
+            new PerceptualDiff(PerceptualDiff.JUST_NOTICEABLE_DELTA_E);
+
+    private final ThreadLocal<FrameRenderer> mRenderers = new ThreadLocal<FrameRenderer>() {
+        @Override
+        protected FrameRenderer initialValue() {
+            return new FrameRenderer();
+        }
+    };
+
+    public ScreenshotTool(File goldenDir, File outDir, boolean record, double threshold) {
+        mGoldenDir = goldenDir;
+        mOutDir = outDir;
+        mRecord = record;
+        mThreshold = threshold;
+    }
+
+    /** Renders and checks {@code frames} on {@code pool}, returning results in frame order. */
+    public FrameResult[] run(List<Frame> frames, ForkJoinPool pool) throws IOException {
+        if (mRecord) {
+            mGoldenDir.mkdirs();
+        }
+        if (mOutDir != null) {
+            mOutDir.mkdirs();
+        }
+        FrameResult[] results = new FrameResult[frames.size()];
+        pool.invoke(new RenderTask(frames, results, 0, frames.size()));
+        return results;
+    }
+
+    /**
+     * Returns the names of the files in the golden directory that are not the golden image of any
+     * of {@code frames}, such as a golden saved under the wrong name, in name order.
+     */
+    public List<String> findStrayGoldens(List<Frame> frames) {
+        Set<String> expected = new HashSet<String>();
+        for (Frame frame : frames) {
+            expected.add(frame.getName() + ".png");
+        }
+        List<String> stray = new ArrayList<String>();
+        String[] names = mGoldenDir.list();
+        if (names != null) {
+            for (String name : names) {
+                if (!expected.contains(name)) {
+                    stray.add(name);
+                }
+            }
+        }
+        Collections.sort(stray);
+        return stray;
+    }
+
+    /** Renders frames {@code [start, end)}, splitting the range until it is small. */
+    private class RenderTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Frame> mFrames;
+        private final FrameResult[] mResults;
+        private final int mStart;
+        private final int mEnd;
+
+        RenderTask(List<Frame> frames, FrameResult[] results, int start, int end) {
+            mFrames = frames;
+            mResults = results;
+            mStart = start;
+            mEnd = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (mEnd - mStart > FRAMES_PER_TASK) {
+                int middle = (mStart + mEnd) >>> 1;
+                invokeAll(new RenderTask(mFrames, mResults, mStart, middle),
+                        new RenderTask(mFrames, mResults, middle, mEnd));
+                return;
+            }
+            for (int i = mStart; i < mEnd; i++) {
+                try {
+                    mResults[i] = check(mFrames.get(i));
+                } catch (IOException e) {
+                    throw new IllegalStateException("Failed to check " + mFrames.get(i), e);
+                }
+            }
+        }
+    }
+
+    private FrameResult check(Frame frame) throws IOException {
+        long start = System.nanoTime();
+        BufferedImage image = mRenderers.get().render(frame);
+        long renderNanos = System.nanoTime() - start;
+
+        String name = frame.getName();
+        File golden = new File(mGoldenDir, name + ".png");
+        if (mRecord) {
+            ImageIO.write(image, "png", golden);
+            return new FrameResult(frame, FrameResult.Status.RECORDED, 0, renderNanos);
+        }
+        if (!golden.exists()) {
+            writeOut(image, name);
+            return new FrameResult(frame, FrameResult.Status.MISSING, 1, renderNanos);
+        }
+        BufferedImage expected = ImageIO.read(golden);
+        double difference = mDiff.compare(expected, image);
+        if (difference <= mThreshold) {
+            return new FrameResult(frame, FrameResult.Status.MATCHED, difference, renderNanos);
+        }
+        writeOut(image, name);
+        if (expected.getWidth() == image.getWidth()
+                && expected.getHeight() == image.getHeight()) {
+            writeOut(mDiff.highlight(expected, image), name + "-diff");
+        }
+        return new FrameResult(frame, FrameResult.Status.DIFFERENT, difference, renderNanos);
+    }
+
+    private void writeOut(BufferedImage image, String name) throws IOException {
+        if (mOutDir != null) {
+            ImageIO.write(image, "png", new File(mOutDir, name + ".png"));
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        File goldenDir = null;
+        File outDir = null;
+        boolean record = false;
+        double threshold = DEFAULT_THRESHOLD;
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean trace = false;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if ("--golden".equals(arg)) {
+                    goldenDir = new File(args[++i]);
+                } else if ("--out".equals(arg)) {
+                    outDir = new File(args[++i]);
+                } else if ("--record".equals(arg)) {
+                    record = true;
+                } else if ("--threshold".equals(arg)) {
+                    threshold = Double.parseDouble(args[++i]);
+                } else if ("--threads".equals(arg)) {
+                    threads = Integer.parseInt(args[++i]);
+                } else if ("--trace".equals(arg)) {
+                    trace = true;
+                } else {
+                    throw new IllegalArgumentException("Unknown argument: " + arg);
+                }
+            }
+            if (goldenDir == null) {
+                throw new IllegalArgumentException("--golden is required");
+            }
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: ScreenshotTool --golden DIR [--out DIR] [--record]"
+                    + " [--threshold FRACTION] [--threads N] [--trace]");
+            System.exit(2);
+            return;
+        }
+
+        // Keep PNG streams in memory rather than in temporary files.
+        ImageIO.setUseCache(false);
+
+        RecordingTraceBackend traceBackend = null;
+        if (trace) {
+            traceBackend = new RecordingTraceBackend();
+            FrameTrace.setBackend(traceBackend);
+        }
+
+        List<Frame> frames = Frame.all(MINUTES);
+        ScreenshotTool tool = new ScreenshotTool(goldenDir, outDir, record, threshold);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        FrameResult[] results = tool.run(frames, pool);
+        long elapsedMs = (System.nanoTime() - start) / 1000000;
+        pool.shutdown();
+
+        int recorded = 0;
+        int different = 0;
+        int missing = 0;
+        long totalRenderNanos = 0;
+        FrameResult slowest = results[0];
+        for (FrameResult result : results) {
+            totalRenderNanos += result.getRenderNanos();
+            if (result.getRenderNanos() > slowest.getRenderNanos()) {
+                slowest = result;
+            }
+            if (result.getStatus() == FrameResult.Status.RECORDED) {
+                recorded++;
+            } else if (result.getStatus() == FrameResult.Status.DIFFERENT) {
+                different++;
+                System.out.println(String.format("DIFFERENT %s: %.3f%% of pixels",
+                        result.getFrame(), result.getDifference() * 100));
+            } else if (result.getStatus() == FrameResult.Status.MISSING) {
+                missing++;
+                System.out.println("MISSING " + result.getFrame() + ": no golden image");
+            }
+        }
+
+        System.out.println(String.format("Checked %d frames in %d ms on %d threads"
+                + " (%.0f frames/s)", results.length, elapsedMs, threads,
+                results.length * 1000.0 / Math.max(1, elapsedMs)));
+        System.out.println(String.format("Render: avg %d us, max %d us (%s)",
+                totalRenderNanos / results.length / 1000, slowest.getRenderNanos() / 1000,
+                slowest.getFrame()));
+        if (traceBackend != null) {
+            for (Map.Entry<String, RecordingTraceBackend.Timing> entry
+                    : traceBackend.getTimings().entrySet()) {
+                System.out.println("  " + entry.getKey() + ": " + entry.getValue());
+            }
+        }
+        List<String> stray = tool.findStrayGoldens(frames);
+        for (String name : stray) {
+            System.out.println("STRAY " + name + ": not the golden image of any frame");
+        }
+        System.out.println(String.format("%d matched, %d different, %d missing, %d recorded,"
+                + " %d stray", results.length - different - missing - recorded, different,
+                missing, recorded, stray.size()));
+        if (missing > 0) {
+            System.out.println("Record golden images with --record after checking the images in "
+                    + (outDir != null ? outDir : "--out"));
+        }
+        if (different > 0 || missing > 0 || !stray.isEmpty()) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright 2015 Chris Cartland. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.chriscartland.watchface.shared;
+
+/**
+ * Build-time switch for {@link FrameTrace} on the JVM. Tracing is always compiled in here, so
+ * {@code --trace} can install a backend; the Android build of the shared code has its own copy
+ * of this class that compiles it out of release builds.
+ */
+final class FrameTraceConfig {
+
+    static final boolean ENABLED = true;
+
+    private FrameTraceConfig() { }
+}
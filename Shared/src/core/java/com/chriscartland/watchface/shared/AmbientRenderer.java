@@ -0,0 +1,263 @@
+/*
+ * Copyright 2015 Chris Cartland. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.chriscartland.watchface.shared;
+
+/**
+ * Draws the UTC watch face in ambient mode.
+ * <p>
+ * Ambient frames are drawn once a minute for most of the day, so this renderer keeps to a budget
+ * of {@link #MAX_DRAW_OPS} canvas operations: the background, both hands, the local and GMT hour
+ * numerals and the UTC label. The rest of the spiral is left out. Every coordinate is computed
+ * and snapped to whole pixels when the size, text size or label changes, so a regular ambient
+ * frame measures no text. On low-bit displays the colors are quantized to one bit per channel
+ * when they are set, and anti-aliasing is off.
+ */
+public class AmbientRenderer {
+
+    /** The most canvas operations {@link #draw} issues for one frame. */
+    public static final int MAX_DRAW_OPS = 6;
+
+    /** The hour hand turns once every 12 hours; it has a position for each minute of that. */
+    private static final int HOUR_HAND_POSITIONS = 12 * 60;
+
+    private static final int MINUTE_HAND_POSITIONS = 60;
+
+    private static final int HOURS = 24;
+
+    private final FacePaint mMinuteHandPaint = new FacePaint();
+    private final FacePaint mHourHandPaint = new FacePaint();
+    private final FacePaint mLocalHourPaint = new FacePaint();
+    private final FacePaint mGmtHourPaint = new FacePaint();
+    private final FacePaint mLabelPaint = new FacePaint();
+
+    /** Used only to measure text while laying out. */
+    private final FacePaint mMeasurePaint = new FacePaint();
+
+    private FacePalette mPalette = new FacePalette();
+    private int mBackgroundColor;
+
+    private boolean mLowBitAmbient;
+    private boolean mMute;
+    private boolean mIsRound;
+    private float mHourTextSize;
+    private float mBigHourTextSize;
+
+    private boolean mLayoutValid;
+    private int mLayoutWidth;
+    private int mLayoutHeight;
+    private int mCenterX;
+    private int mCenterY;
+    private final float[] mMinuteHandEnds = new float[MINUTE_HAND_POSITIONS * 2];
+    private final float[] mHourHandEnds = new float[HOUR_HAND_POSITIONS * 2];
+    private final float[] mHourNumeralPositions = new float[HOURS * 2];
+
+    private float mLabelOffsetHours = Float.NaN;
+    private String mLabel;
+    private float mLabelX;
+    private float mLabelY;
+
+    public AmbientRenderer() {
+        mMinuteHandPaint.setRoundCap(true);
+        mMinuteHandPaint.setStrokeWidth(3f);
+
+        mHourHandPaint.setRoundCap(true);
+        mHourHandPaint.setStrokeWidth(4f);
+
+        mLocalHourPaint.setBold(true);
+        mLocalHourPaint.setTextAlign(FacePaint.Align.CENTER);
+        mGmtHourPaint.setBold(true);
+        mGmtHourPaint.setTextAlign(FacePaint.Align.CENTER);
+        mMeasurePaint.setBold(true);
+
+        updateColors();
+    }
+
+    public void setPalette(FacePalette palette) {
+        mPalette = new FacePalette(palette);
+        updateColors();
+    }
+
+    public void setLowBitAmbient(boolean lowBitAmbient) {
+        if (mLowBitAmbient != lowBitAmbient) {
+            mLowBitAmbient = lowBitAmbient;
+            boolean antiAlias = !lowBitAmbient;
+            mMinuteHandPaint.setAntiAlias(antiAlias);
+            mHourHandPaint.setAntiAlias(antiAlias);
+            mLocalHourPaint.setAntiAlias(antiAlias);
+            mGmtHourPaint.setAntiAlias(antiAlias);
+            mLabelPaint.setAntiAlias(antiAlias);
+            updateColors();
+        }
+    }
+
+    public void setMute(boolean mute) {
+        if (mMute != mute) {
+            mMute = mute;
+            updateColors();
+        }
+    }
+
+    public void setTextSizes(boolean isRound, float hourTextSize, float bigHourTextSize) {
+        mIsRound = isRound;
+        mHourTextSize = hourTextSize;
+        mBigHourTextSize = bigHourTextSize;
+        mLocalHourPaint.setTextSize(bigHourTextSize);
+        mGmtHourPaint.setTextSize(bigHourTextSize);
+        mLabelPaint.setTextSize(hourTextSize);
+        mLabelPaint.setTextAlign(isRound ? FacePaint.Align.CENTER : FacePaint.Align.LEFT);
+        mLayoutValid = false;
+    }
+
+    /**
+     * Draws an ambient frame in a box of the given size at the top left of the canvas.
+     */
+    public void draw(FaceCanvas canvas, FaceTime time, int width, int height) {
+        FrameTrace.beginSection(FrameTrace.DRAW_AMBIENT);
+        if (!mLayoutValid || mLayoutWidth != width || mLayoutHeight != height) {
+            layout(canvas, width, height);
+        }
+        if (mLabel == null || time.getUtcOffsetHours() != mLabelOffsetHours) {
+            layoutLabel(canvas, time.getUtcOffsetHours(), width);
+        }
+
+        canvas.drawColor(mBackgroundColor);
+
+        int hour = time.getHour();
+        int minute = time.getMinute();
+        int minuteIndex = minute * 2;
+        canvas.drawLine(mCenterX, mCenterY, mMinuteHandEnds[minuteIndex],
+                mMinuteHandEnds[minuteIndex + 1], mMinuteHandPaint);
+        int hourIndex = ((hour % 12) * 60 + minute) * 2;
+        canvas.drawLine(mCenterX, mCenterY, mHourHandEnds[hourIndex],
+                mHourHandEnds[hourIndex + 1], mHourHandPaint);
+
+        int gmtHour = time.getGmtHour();
+        if (gmtHour != hour) {
+            drawHour(canvas, gmtHour, mGmtHourPaint);
+        }
+        drawHour(canvas, hour, mLocalHourPaint);
+
+        canvas.drawText(mLabel, mLabelX, mLabelY, mLabelPaint);
+        FrameTrace.endSection();
+    }
+
+    private void drawHour(FaceCanvas canvas, int hour, FacePaint paint) {
+        canvas.drawText(Integer.toString(hour), mHourNumeralPositions[hour * 2],
+                mHourNumeralPositions[hour * 2 + 1], paint);
+    }
+
+    /**
+     * Computes the pixel-snapped end of each hand position and the baseline of each hour numeral
+     * for a face of the given size. Matches the interactive face drawn by {@link UTCFaceRenderer}.
+     */
+    private void layout(FaceCanvas canvas, int width, int height) {
+        float centerX = width / 2f;
+        float centerY = height / 2f;
+        float radius = Math.min(centerX, centerY);
+        mCenterX = Math.round(centerX);
+        mCenterY = Math.round(centerY);
+
+        mMeasurePaint.setTextSize(mHourTextSize);
+        float armTextHeight = canvas.getTextHeight("24", 0, 1, mMeasurePaint);
+        float minuteArmRadius = FaceGeometry.calculateMinuteArmRadius(radius, armTextHeight);
+        for (int minute = 0; minute < MINUTE_HAND_POSITIONS; minute++) {
+            float rot = FaceGeometry.calculateMinuteRot(minute);
+            setSnapped(mMinuteHandEnds, minute,
+                    centerX + FaceGeometry.calculateXComponent(rot, minuteArmRadius),
+                    centerY + FaceGeometry.calculateYComponent(rot, minuteArmRadius));
+        }
+        float hourArmRadius = FaceGeometry.calculateHourArmRadius(radius, armTextHeight);
+        for (int position = 0; position < HOUR_HAND_POSITIONS; position++) {
+            float rot = FaceGeometry.calculateHourRot(position / 60f);
+            setSnapped(mHourHandEnds, position,
+                    centerX + FaceGeometry.calculateXComponent(rot, hourArmRadius),
+                    centerY + FaceGeometry.calculateYComponent(rot, hourArmRadius));
+        }
+
+        for (int hour = 0; hour < HOURS; hour++) {
+            String text = Integer.toString(hour);
+            // The ring is placed by the normal hour size, so the enlarged numeral stays on it.
+            mMeasurePaint.setTextSize(mHourTextSize);
+            float outerTextBuffer = canvas.getTextHeight(text, 0, 1, mMeasurePaint);
+            float hourRadius = FaceGeometry.calculateHourRadius(radius, hour, outerTextBuffer);
+            float rot = FaceGeometry.calculateHourRot(hour);
+            mMeasurePaint.setTextSize(mBigHourTextSize);
+            int textHeight = canvas.getTextHeight(text, 0, text.length(), mMeasurePaint);
+            setSnapped(mHourNumeralPositions, hour,
+                    centerX + FaceGeometry.calculateXComponent(rot, hourRadius),
+                    centerY + FaceGeometry.calculateYComponent(rot, hourRadius)
+                            + textHeight / 2);
+        }
+
+        mLayoutWidth = width;
+        mLayoutHeight = height;
+        mLayoutValid = true;
+        mLabel = null;
+    }
+
+    private void layoutLabel(FaceCanvas canvas, float offsetHours, int width) {
+        mLabelOffsetHours = offsetHours;
+        mLabel = FaceGeometry.formatUTCDiff(offsetHours);
+        if (mIsRound) {
+            mLabelX = mCenterX;
+            mLabelY = mCenterY;
+        } else {
+            mLabelX = Math.round(width - canvas.measureText(mLabel, mLabelPaint) - 20);
+            mLabelY = 30;
+        }
+    }
+
+    private static void setSnapped(float[] positions, int index, float x, float y) {
+        positions[index * 2] = Math.round(x);
+        positions[index * 2 + 1] = Math.round(y);
+    }
+
+    private void updateColors() {
+        mBackgroundColor = toAmbientColor(mPalette.getBackground());
+        mMinuteHandPaint.setColor(toAmbientColor(mPalette.getMinuteHand()));
+        mHourHandPaint.setColor(toAmbientColor(mPalette.getHourHand()));
+        mLocalHourPaint.setColor(toAmbientColor(mPalette.getCurrentHour()));
+        mGmtHourPaint.setColor(toAmbientColor(mPalette.getGmtHour()));
+        mLabelPaint.setColor(toAmbientColor(mPalette.getUtcLabel()));
+        // Low-bit displays can't blend, so mute mode only dims full-color displays. The alphas
+        // match the interactive face.
+        if (mMute && !mLowBitAmbient) {
+            mMinuteHandPaint.setAlpha(80);
+            mHourHandPaint.setAlpha(100);
+            mLabelPaint.setAlpha(80);
+        }
+    }
+
+    private int toAmbientColor(int color) {
+        return mLowBitAmbient ? quantizeForLowBit(color) : color;
+    }
+
+    /**
+     * Returns {@code color} with each channel rounded to fully on or off, as shown by low-bit
+     * ambient displays.
+     */
+    public static int quantizeForLowBit(int color) {
+        return 0xFF000000
+                | quantizeChannel(color >> 16) << 16
+                | quantizeChannel(color >> 8) << 8
+                | quantizeChannel(color);
+    }
+
+    private static int quantizeChannel(int channel) {
+        return ((channel & 0xFF) >= 0x80) ? 0xFF : 0;
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2015 Chris Cartland. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.chriscartland.watchface.shared;
+
+/**
+ * The drawing operations used to render the UTC watch face, so that the same rendering code can
+ * draw on an Android {@code Canvas} on the watch or the phone, or into an image on the JVM.
+ */
+public interface FaceCanvas {
+
+    /** Fills the whole canvas with {@code color}. */
+    void drawColor(int color);
+
+    void drawLine(float startX, float startY, float stopX, float stopY, FacePaint paint);
+
+    /** Draws {@code text} with its baseline at {@code y}, aligned to {@code x} by the paint. */
+    void drawText(String text, float x, float y, FacePaint paint);
+
+    float measureText(String text, FacePaint paint);
+
+    /**
+     * Returns the height of the bounds of the characters of {@code text} from {@code start} up to
+     * {@code end}.
+     */
+    int getTextHeight(String text, int start, int end, FacePaint paint);
+}
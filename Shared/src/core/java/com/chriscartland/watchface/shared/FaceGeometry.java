@@ -0,0 +1,79 @@
+/*
+ * Copyright 2015 Chris Cartland. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.chriscartland.watchface.shared;
+
+/**
+ * Positions of the hands and hour numerals of the UTC watch face, shared by
+ * {@link UTCFaceRenderer} and {@link AmbientRenderer} so that both draw the same face.
+ */
+public final class FaceGeometry {
+
+    private FaceGeometry() { }
+
+    public static float calculateXComponent(float rot, float radius) {
+        return (float) Math.sin(rot) * radius;
+    }
+
+    public static float calculateYComponent(float rot, float radius) {
+        return (float) -Math.cos(rot) * radius;
+    }
+
+    public static float calculateHourRot(float hour) {
+        return (float) (hour * Math.PI * 2 / 12);
+    }
+
+    public static float calculateMinuteRot(float min) {
+        return (float) (min * Math.PI * 2 / 60);
+    }
+
+    /**
+     * Returns the radius of the numeral for {@code hour}. Hours after 11 are inset so that the
+     * numerals form a spiral.
+     */
+    public static float calculateHourRadius(float radius, float hour, float textHeight) {
+        float inset = (hour > 11) ? (textHeight * 3f) : 0;
+        return radius - 10 - textHeight - inset;
+    }
+
+    public static float calculateMinuteArmRadius(float radius, float textHeight) {
+        float inset = textHeight * 5f;
+        return radius - 10 - textHeight - inset;
+    }
+
+    public static float calculateHourArmRadius(float radius, float textHeight) {
+        return calculateMinuteArmRadius(radius, textHeight) / 2;
+    }
+
+    public static String formatUTCDiff(float hour) {
+        int truncateAfter = (int) (hour * 2);
+        int truncateBefore = ((int) hour) * 2;
+
+        if (truncateAfter == truncateBefore) {
+            if (hour >= 0) {
+                return "UTC+" + Math.abs((int)hour);
+            } else {
+                return "UTC-" + Math.abs((int)hour);
+            }
+        } else {
+            if (hour >= 0) { // must check float, not int
+                return "UTC+" + String.format("%d.5", Math.abs((int)hour));
+            } else {
+                return "UTC-" + String.format("%d.5", Math.abs((int)hour));
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2015 Chris Cartland. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.chriscartland.watchface.shared;
+
+/**
+ * The style for a {@link FaceCanvas} operation. A {@link FaceCanvas} implementation builds its
+ * own platform paint from this and caches it here until a property changes.
+ */
+public class FacePaint {
+
+    public enum Align {
+        LEFT, CENTER
+    }
+
+    private int mColor = 0xFF000000;
+    private float mStrokeWidth;
+    private float mTextSize = 12f;
+    private boolean mBold;
+    private boolean mRoundCap;
+    private boolean mAntiAlias = true;
+    private Align mTextAlign = Align.LEFT;
+
+    private Object mPlatformPaint;
+    private boolean mPlatformPaintStale = true;
+
+    public int getColor() {
+        return mColor;
+    }
+
+    /** Sets the ARGB color, including its alpha. */
+    public void setColor(int color) {
+        if (mColor != color) {
+            mColor = color;
+            mPlatformPaintStale = true;
+        }
+    }
+
+    public int getAlpha() {
+        return mColor >>> 24;
+    }
+
+    public void setAlpha(int alpha) {
+        setColor((alpha << 24) | (mColor & 0x00FFFFFF));
+    }
+
+    public float getStrokeWidth() {
+        return mStrokeWidth;
+    }
+
+    public void setStrokeWidth(float strokeWidth) {
+        if (mStrokeWidth != strokeWidth) {
+            mStrokeWidth = strokeWidth;
+            mPlatformPaintStale = true;
+        }
+    }
+
+    public float getTextSize() {
+        return mTextSize;
+    }
+
+    public void setTextSize(float textSize) {
+        if (mTextSize != textSize) {
+            mTextSize = textSize;
+            mPlatformPaintStale = true;
+        }
+    }
+
+    public boolean isBold() {
+        return mBold;
+    }
+
+    public void setBold(boolean bold) {
+        if (mBold != bold) {
+            mBold = bold;
+            mPlatformPaintStale = true;
+        }
+    }
+
+    public boolean isRoundCap() {
+        return mRoundCap;
+    }
+
+    public void setRoundCap(boolean roundCap) {
+        if (mRoundCap != roundCap) {
+            mRoundCap = roundCap;
+            mPlatformPaintStale = true;
+        }
+    }
+
+    public boolean isAntiAlias() {
+        return mAntiAlias;
+    }
+
+    public void setAntiAlias(boolean antiAlias) {
+        if (mAntiAlias != antiAlias) {
+            mAntiAlias = antiAlias;
+            mPlatformPaintStale = true;
+        }
+    }
+
+    public Align getTextAlign() {
+        return mTextAlign;
+    }
+
+    public void setTextAlign(Align textAlign) {
+        if (mTextAlign != textAlign) {
+            mTextAlign = textAlign;
+            mPlatformPaintStale = true;
+        }
+    }
+
+    /** Returns the platform paint last stored by a {@link FaceCanvas}, or null. */
+    public Object getPlatformPaint() {
+        return mPlatformPaint;
+    }
+
+    /** Returns whether a property changed since the platform paint was stored. */
+    public boolean isPlatformPaintStale() {
+        return mPlatformPaintStale;
+    }
+
+    /** Stores the platform paint a {@link FaceCanvas} built from the current properties. */
+    public void setPlatformPaint(Object platformPaint) {
+        mPlatformPaint = platformPaint;
+        mPlatformPaintStale = false;
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2015 Chris Cartland. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.chriscartland.watchface.shared;
+
+/**
+ * The colors of the UTC watch face. The defaults are the colors the face ships with; the config
+ * color keys in {@link WatchFaceConfig} override them one at a time.
+ */
+public class FacePalette {
+
+    public static final int DEFAULT_BACKGROUND = 0xFF000000;
+    public static final int DEFAULT_HOURS = 0xFFFFFFFF;
+    public static final int DEFAULT_MINUTE_HAND = 0xFFFF0000;
+    public static final int DEFAULT_HOUR_HAND = 0xFFFF0000;
+    public static final int DEFAULT_CURRENT_HOUR = 0xFFFF0000;
+    public static final int DEFAULT_GMT_HOUR = 0xFFFFFFFF;
+    public static final int DEFAULT_UTC_LABEL = 0xFF888888;
+
+    private int mBackground = DEFAULT_BACKGROUND;
+    private int mHours = DEFAULT_HOURS;
+    private int mMinuteHand = DEFAULT_MINUTE_HAND;
+    private int mHourHand = DEFAULT_HOUR_HAND;
+    private int mCurrentHour = DEFAULT_CURRENT_HOUR;
+    private int mGmtHour = DEFAULT_GMT_HOUR;
+    private int mUtcLabel = DEFAULT_UTC_LABEL;
+
+    public FacePalette() { }
+
+    public FacePalette(FacePalette other) {
+        mBackground = other.mBackground;
+        mHours = other.mHours;
+        mMinuteHand = other.mMinuteHand;
+        mHourHand = other.mHourHand;
+        mCurrentHour = other.mCurrentHour;
+        mGmtHour = other.mGmtHour;
+        mUtcLabel = other.mUtcLabel;
+    }
+
+    /**
+     * Sets the color for one of the color keys of {@link WatchFaceConfig}.
+     *
+     * @return whether {@code configKey} is a color key
+     */
+    public boolean setColorForKey(String configKey, int color) {
+        if (configKey.equals(WatchFaceConfig.KEY_BACKGROUND_COLOR)) {
+            mBackground = color;
+        } else if (configKey.equals(WatchFaceConfig.KEY_HOURS_COLOR)) {
+            mHours = color;
+        } else if (configKey.equals(WatchFaceConfig.KEY_MINUTES_COLOR)) {
+            mMinuteHand = color;
+        } else if (configKey.equals(WatchFaceConfig.KEY_SECONDS_COLOR)) {
+            mUtcLabel = color;
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    public int getBackground() {
+        return mBackground;
+    }
+
+    public int getHours() {
+        return mHours;
+    }
+
+    public int getMinuteHand() {
+        return mMinuteHand;
+    }
+
+    public int getHourHand() {
+        return mHourHand;
+    }
+
+    public int getCurrentHour() {
+        return mCurrentHour;
+    }
+
+    public int getGmtHour() {
+        return mGmtHour;
+    }
+
+    public int getUtcLabel() {
+        return mUtcLabel;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof FacePalette)) {
+            return false;
+        }
+        FacePalette other = (FacePalette) o;
+        return mBackground == other.mBackground
+                && mHours == other.mHours
+                && mMinuteHand == other.mMinuteHand
+                && mHourHand == other.mHourHand
+                && mCurrentHour == other.mCurrentHour
+                && mGmtHour == other.mGmtHour
+                && mUtcLabel == other.mUtcLabel;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = mBackground;
+        result = 31 * result + mHours;
+        result = 31 * result + mMinuteHand;
+        result = 31 * result + mHourHand;
+        result = 31 * result + mCurrentHour;
+        result = 31 * result + mGmtHour;
+        result = 31 * result + mUtcLabel;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("FacePalette{background=%08X hours=%08X minuteHand=%08X"
+                + " hourHand=%08X currentHour=%08X gmtHour=%08X utcLabel=%08X}",
+                mBackground, mHours, mMinuteHand, mHourHand, mCurrentHour, mGmtHour, mUtcLabel);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2015 Chris Cartland. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.chriscartland.watchface.shared;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * The local and GMT time shown by the UTC watch face. Instances are reused from frame to frame,
+ * so setting the time allocates nothing.
+ */
+public class FaceTime {
+
+    private final Calendar mLocal;
+    private final Calendar mGmt = Calendar.getInstance(TimeZone.getTimeZone("GMT"));
+
+    private long mMillis;
+    private int mHour;
+    private int mMinute;
+    private int mGmtHour;
+    private float mUtcOffsetHours;
+
+    public FaceTime() {
+        this(TimeZone.getDefault());
+    }
+
+    public FaceTime(TimeZone timeZone) {
+        mLocal = Calendar.getInstance(timeZone);
+    }
+
+    public void setTimeZone(TimeZone timeZone) {
+        mLocal.setTimeZone(timeZone);
+        set(mMillis);
+    }
+
+    /** Sets both the local and GMT time. */
+    public void set(long millis) {
+        setLocal(millis);
+        updateGmt();
+    }
+
+    /** Sets the local time. Call {@link #updateGmt} before reading the GMT fields. */
+    public void setLocal(long millis) {
+        mMillis = millis;
+        mLocal.setTimeInMillis(millis);
+        mHour = mLocal.get(Calendar.HOUR_OF_DAY);
+        mMinute = mLocal.get(Calendar.MINUTE);
+    }
+
+    /** Updates the GMT hour and the UTC offset from the local time. */
+    public void updateGmt() {
+        mGmt.setTimeInMillis(mMillis);
+        mGmtHour = mGmt.get(Calendar.HOUR_OF_DAY);
+        long milliDiff = mLocal.getTimeZone().getOffset(mMillis);
+        mUtcOffsetHours = milliDiff / 1000f / 60f / 60f;
+    }
+
+    /** Returns the local hour, 0 to 23. */
+    public int getHour() {
+        return mHour;
+    }
+
+    public int getMinute() {
+        return mMinute;
+    }
+
+    /** Returns the GMT hour, 0 to 23. */
+    public int getGmtHour() {
+        return mGmtHour;
+    }
+
+    /** Returns the offset of the local time zone from UTC in hours, such as -7 or 5.5. */
+    public float getUtcOffsetHours() {
+        return mUtcOffsetHours;
+    }
+}
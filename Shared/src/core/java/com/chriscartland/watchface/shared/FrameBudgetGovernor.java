@@ -0,0 +1,207 @@
+/*
+ * Copyright 2015 Chris Cartland. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.chriscartland.watchface.shared;
+
+/**
+ * Picks the rendering quality for interactive mode from how long recent frames took to draw.
+ * <p>
+ * Each {@link Tier} has a frame budget: a fraction of its update interval that drawing may use.
+ * Once a full window of frames averages over the budget of the current tier, the governor steps
+ * down one tier. The window is cleared on every switch so each decision is based on frames drawn
+ * at the new tier.
+ * <p>
+ * Tiers can cost very different amounts, so frames drawn at a cheap tier say little about the
+ * tier above it. When the governor steps down, it remembers the average that made it step down
+ * and compares it with the first window at the new tier. That ratio predicts what the tier above
+ * would cost now, and the governor steps back up only once the prediction is under the budget of
+ * that tier, scaled down by the step-up ratio. So it doesn't return to a tier that would still
+ * be over budget, and a frame time near a threshold doesn't make it switch back and forth.
+ */
+public class FrameBudgetGovernor {
+
+    /** Rendering quality tiers for interactive mode, from best to cheapest. */
+    public enum Tier {
+        /** Animations at 20 fps, anti-aliased, numerals drawn every frame. */
+        FULL(50, true, false),
+        /** Animations at 10 fps. */
+        REDUCED_FRAME_RATE(100, true, false),
+        /** Animations at 10 fps without anti-aliasing. */
+        NO_ANTI_ALIAS(100, false, false),
+        /**
+         * Animations at 10 fps without anti-aliasing, with the numerals drawn from a cached
+         * layer.
+         */
+        STATIC_NUMERALS(100, false, true);
+
+        private final long mUpdateRateMs;
+        private final boolean mAntiAlias;
+        private final boolean mStaticNumerals;
+
+        Tier(long updateRateMs, boolean antiAlias, boolean staticNumerals) {
+            mUpdateRateMs = updateRateMs;
+            mAntiAlias = antiAlias;
+            mStaticNumerals = staticNumerals;
+        }
+
+        public long getUpdateRateMs() {
+            return mUpdateRateMs;
+        }
+
+        public boolean isAntiAlias() {
+            return mAntiAlias;
+        }
+
+        public boolean isStaticNumerals() {
+            return mStaticNumerals;
+        }
+    }
+
+    /** Fraction of a tier's update interval that drawing a frame may take. */
+    public static final float DEFAULT_BUDGET_FRACTION = 0.3f;
+
+    /** Number of frames averaged before switching tiers. */
+    public static final int DEFAULT_WINDOW_FRAMES = 20;
+
+    /**
+     * Fraction of the budget of the tier above that its predicted frame time must be under before
+     * stepping up.
+     */
+    public static final float DEFAULT_STEP_UP_RATIO = 0.75f;
+
+    private static final long NANOS_PER_MILLI = 1000000L;
+
+    private static final Tier[] TIERS = Tier.values();
+
+    private final float mBudgetFraction;
+    private final float mStepUpRatio;
+    private final long[] mFrameNanos;
+
+    private Tier mTier = Tier.FULL;
+    private int mFrameCount;
+    private int mNextFrame;
+    private long mTotalNanos;
+
+    /** The average that made the governor last step down from each tier. */
+    private final long[] mStepDownNanos = new long[TIERS.length];
+    /** How many times more each tier cost than the tier below it, or 0 if not measured yet. */
+    private final float[] mCostRatios = new float[TIERS.length];
+    /** Whether the current window is the first one since stepping down. */
+    private boolean mMeasuringCostRatio;
+
+    public FrameBudgetGovernor() {
+        this(DEFAULT_BUDGET_FRACTION, DEFAULT_WINDOW_FRAMES, DEFAULT_STEP_UP_RATIO);
+    }
+
+    public FrameBudgetGovernor(float budgetFraction, int windowFrames, float stepUpRatio) {
+        if (budgetFraction <= 0 || windowFrames <= 0 || stepUpRatio <= 0 || stepUpRatio > 1) {
+            throw new IllegalArgumentException("Invalid governor thresholds: budgetFraction="
+                    + budgetFraction + " windowFrames=" + windowFrames + " stepUpRatio="
+                    + stepUpRatio);
+        }
+        mBudgetFraction = budgetFraction;
+        mStepUpRatio = stepUpRatio;
+        mFrameNanos = new long[windowFrames];
+    }
+
+    public Tier getTier() {
+        return mTier;
+    }
+
+    /** Returns how long a frame may take to draw at {@code tier}. */
+    public long getFrameBudgetNanos(Tier tier) {
+        return Math.round(tier.getUpdateRateMs() * NANOS_PER_MILLI * (double) mBudgetFraction);
+    }
+
+    /** Returns the average above which the governor steps down from {@code tier}. */
+    public long getStepDownThresholdNanos(Tier tier) {
+        return getFrameBudgetNanos(tier);
+    }
+
+    /**
+     * Returns the predicted average of the tier above {@code tier} below which the governor steps
+     * up from {@code tier}, or -1 if {@code tier} is already the best.
+     */
+    public long getStepUpThresholdNanos(Tier tier) {
+        if (tier.ordinal() == 0) {
+            return -1;
+        }
+        Tier better = TIERS[tier.ordinal() - 1];
+        return Math.round(getFrameBudgetNanos(better) * (double) mStepUpRatio);
+    }
+
+    /**
+     * Records how long the last frame took to draw.
+     *
+     * @return whether the tier changed
+     */
+    public boolean onFrameDrawn(long drawNanos) {
+        if (mFrameCount == mFrameNanos.length) {
+            mTotalNanos -= mFrameNanos[mNextFrame];
+        } else {
+            mFrameCount++;
+        }
+        mFrameNanos[mNextFrame] = drawNanos;
+        mTotalNanos += drawNanos;
+        mNextFrame = (mNextFrame + 1) % mFrameNanos.length;
+
+        if (mFrameCount < mFrameNanos.length) {
+            return false;
+        }
+        long averageNanos = mTotalNanos / mFrameCount;
+        if (mMeasuringCostRatio) {
+            int better = mTier.ordinal() - 1;
+            mCostRatios[better] = mStepDownNanos[better] / (float) Math.max(1, averageNanos);
+            mMeasuringCostRatio = false;
+        }
+        if (averageNanos > getStepDownThresholdNanos(mTier)
+                && mTier.ordinal() < TIERS.length - 1) {
+            mStepDownNanos[mTier.ordinal()] = averageNanos;
+            setTier(TIERS[mTier.ordinal() + 1]);
+            mMeasuringCostRatio = true;
+            return true;
+        }
+        if (mTier.ordinal() > 0
+                && predictBetterTierNanos(averageNanos) < getStepUpThresholdNanos(mTier)) {
+            setTier(TIERS[mTier.ordinal() - 1]);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Forgets the recorded frames, for example after a pause in drawing, but keeps the tier.
+     */
+    public void clearFrames() {
+        mFrameCount = 0;
+        mNextFrame = 0;
+        mTotalNanos = 0;
+    }
+
+    /**
+     * Predicts what frames would average at the tier above the current one, from the current
+     * average. A better tier is never predicted to be cheaper than the current one.
+     */
+    private long predictBetterTierNanos(long averageNanos) {
+        float costRatio = mCostRatios[mTier.ordinal() - 1];
+        return Math.round(averageNanos * (double) Math.max(1f, costRatio));
+    }
+
+    private void setTier(Tier tier) {
+        mTier = tier;
+        clearFrames();
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2015 Chris Cartland. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.chriscartland.watchface.shared;
+
+/**
+ * Named trace sections around each phase of drawing the watch face.
+ * <p>
+ * Sections are forwarded to a {@link Backend} installed with {@link #setBackend(Backend)}; until
+ * then they go to a backend that does nothing. Every call first checks the compile-time constant
+ * {@code FrameTraceConfig.ENABLED}, which each build of this code defines for itself. Where it is
+ * false, as in release builds of the watch face, the calls compile to empty methods and
+ * {@link #setBackend(Backend)} is ignored. Sections must be ended on the thread that began them,
+ * in reverse order.
+ */
+public final class FrameTrace {
+
+    public static final String DRAW = "UTC:onDraw";
+    public static final String DRAW_TIME = "UTC:time";
+    public static final String DRAW_GMT = "UTC:gmt";
+    public static final String DRAW_HEIGHT = "UTC:updateWatchHeight";
+    public static final String DRAW_BACKGROUND = "UTC:background";
+    public static final String DRAW_HANDS = "UTC:hands";
+    public static final String DRAW_SPIRAL = "UTC:spiral";
+    public static final String DRAW_UTC_LABEL = "UTC:utcLabel";
+    public static final String DRAW_AMBIENT = "UTC:ambient";
+    public static final String UPDATE_TIMER = "UTC:updateTimer";
+    public static final String RECEIVE_CONFIG = "UTC:receiveConfig";
+
+    /** Receives trace sections. Implementations must tolerate being called from any thread. */
+    public interface Backend {
+        void beginSection(String name);
+        void endSection();
+    }
+
+    private static final Backend NO_OP = new Backend() {
+        @Override
+        public void beginSection(String name) { }
+
+        @Override
+        public void endSection() { }
+    };
+
+    /** Whether tracing is compiled in. */
+    public static final boolean ENABLED = FrameTraceConfig.ENABLED;
+
+    /** Volatile because a backend may be installed while other threads are drawing. */
+    private static volatile Backend sBackend = NO_OP;
+
+    private FrameTrace() { }
+
+    /**
+     * Installs {@code backend} for all subsequent sections, or restores the no-op default if
+     * {@code backend} is null. Does nothing if tracing isn't {@link #ENABLED}.
+     */
+    public static void setBackend(Backend backend) {
+        if (ENABLED) {
+            sBackend = (backend != null) ? backend : NO_OP;
+        }
+    }
+
+    public static void beginSection(String name) {
+        if (ENABLED) {
+            sBackend.beginSection(name);
+        }
+    }
+
+    public static void endSection() {
+        if (ENABLED) {
+            sBackend.endSection();
+        }
+    }
+}
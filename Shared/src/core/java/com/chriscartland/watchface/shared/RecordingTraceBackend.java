@@ -0,0 +1,128 @@
+/*
+ * Copyright 2015 Chris Cartland. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.chriscartland.watchface.shared;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@link FrameTrace.Backend} that records the count and total duration of every section, so that
+ * section timings can be inspected on the JVM without systrace.
+ */
+public class RecordingTraceBackend implements FrameTrace.Backend {
+
+    /** Aggregated timing for one section name. */
+    public static class Timing {
+        private int mCount;
+        private long mTotalNanos;
+        private long mMaxNanos;
+
+        public int getCount() {
+            return mCount;
+        }
+
+        public long getTotalNanos() {
+            return mTotalNanos;
+        }
+
+        public long getMaxNanos() {
+            return mMaxNanos;
+        }
+
+        public long getAverageNanos() {
+            return (mCount == 0) ? 0 : mTotalNanos / mCount;
+        }
+
+        private void add(long nanos) {
+            mCount++;
+            mTotalNanos += nanos;
+            mMaxNanos = Math.max(mMaxNanos, nanos);
+        }
+
+        @Override
+        public String toString() {
+            return "count=" + mCount + " avg=" + getAverageNanos() / 1000 + "us max="
+                    + mMaxNanos / 1000 + "us";
+        }
+    }
+
+    private static class OpenSection {
+        final String mName;
+        final long mStartNanos;
+
+        OpenSection(String name, long startNanos) {
+            mName = name;
+            mStartNanos = startNanos;
+        }
+    }
+
+    private final ThreadLocal<Deque<OpenSection>> mOpenSections =
+            new ThreadLocal<Deque<OpenSection>>() {
+                @Override
+                protected Deque<OpenSection> initialValue() {
+                    return new ArrayDeque<OpenSection>();
+                }
+            };
+
+    private final Map<String, Timing> mTimings = new LinkedHashMap<String, Timing>();
+
+    @Override
+    public void beginSection(String name) {
+        mOpenSections.get().push(new OpenSection(name, System.nanoTime()));
+    }
+
+    @Override
+    public void endSection() {
+        long end = System.nanoTime();
+        OpenSection section = mOpenSections.get().poll();
+        if (section == null) {
+            throw new IllegalStateException("endSection() without matching beginSection()");
+        }
+        synchronized (mTimings) {
+            Timing timing = mTimings.get(section.mName);
+            if (timing == null) {
+                timing = new Timing();
+                mTimings.put(section.mName, timing);
+            }
+            timing.add(end - section.mStartNanos);
+        }
+    }
+
+    /** Returns a snapshot of the recorded timings, keyed by section name in first-seen order. */
+    public Map<String, Timing> getTimings() {
+        synchronized (mTimings) {
+            Map<String, Timing> copy = new LinkedHashMap<String, Timing>();
+            for (Map.Entry<String, Timing> entry : mTimings.entrySet()) {
+                Timing timing = new Timing();
+                timing.mCount = entry.getValue().mCount;
+                timing.mTotalNanos = entry.getValue().mTotalNanos;
+                timing.mMaxNanos = entry.getValue().mMaxNanos;
+                copy.put(entry.getKey(), timing);
+            }
+            return Collections.unmodifiableMap(copy);
+        }
+    }
+
+    public void reset() {
+        synchronized (mTimings) {
+            mTimings.clear();
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2015 Chris Cartland. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.chriscartland.watchface.shared;
+
+/**
+ * Draws the interactive UTC watch face: the minute and hour hands, the 24 hour numerals in a
+ * spiral with the local and GMT hours enlarged, and the offset of the local time zone from UTC.
+ * <p>
+ * The face is drawn in a box of the given width and height, starting at the top left of the
+ * canvas. The height is less than the screen height while a card peeks. Text heights are measured
+ * once per text size and reused.
+ */
+public class UTCFaceRenderer {
+
+    private static final int HOURS = 24;
+
+    private final FacePaint mHourPaint = new FacePaint();
+    private final FacePaint mCurrentHourPaint = new FacePaint();
+    private final FacePaint mGmtHourPaint = new FacePaint();
+    private final FacePaint mMinuteHandPaint = new FacePaint();
+    private final FacePaint mHourHandPaint = new FacePaint();
+    private final FacePaint mUTCLabelPaint = new FacePaint();
+
+    private int mBackgroundColor = FacePalette.DEFAULT_BACKGROUND;
+    private boolean mMute;
+    private boolean mIsRound;
+
+    private boolean mTextMetricsValid;
+    private float mArmTextHeight;
+    private final float[] mHourOuterTextHeights = new float[HOURS];
+    private final int[] mHourTextHeights = new int[HOURS];
+    private final int[] mBigHourTextHeights = new int[HOURS];
+
+    private float mLabelOffsetHours = Float.NaN;
+    private String mLabel;
+    private float mLabelWidth;
+
+    public UTCFaceRenderer() {
+        mHourPaint.setBold(true);
+        mHourPaint.setTextAlign(FacePaint.Align.CENTER);
+        mCurrentHourPaint.setBold(true);
+        mCurrentHourPaint.setTextAlign(FacePaint.Align.CENTER);
+        mGmtHourPaint.setBold(true);
+        mGmtHourPaint.setTextAlign(FacePaint.Align.CENTER);
+
+        // The hands have always been drawn without anti-aliasing.
+        mMinuteHandPaint.setAntiAlias(false);
+        mMinuteHandPaint.setRoundCap(true);
+        mMinuteHandPaint.setStrokeWidth(3f);
+        mHourHandPaint.setAntiAlias(false);
+        mHourHandPaint.setRoundCap(true);
+        mHourHandPaint.setStrokeWidth(4f);
+
+        setPalette(new FacePalette());
+    }
+
+    public void setPalette(FacePalette palette) {
+        mBackgroundColor = palette.getBackground();
+        mHourPaint.setColor(palette.getHours());
+        mCurrentHourPaint.setColor(palette.getCurrentHour());
+        mGmtHourPaint.setColor(palette.getGmtHour());
+        mMinuteHandPaint.setColor(palette.getMinuteHand());
+        mHourHandPaint.setColor(palette.getHourHand());
+        mUTCLabelPaint.setColor(palette.getUtcLabel());
+        updateAlpha();
+    }
+
+    /** Dims the face for mute mode. The local and GMT hours stay at full strength. */
+    public void setMute(boolean mute) {
+        mMute = mute;
+        updateAlpha();
+    }
+
+    /** Sets anti-aliasing for the text. The hands are never anti-aliased. */
+    public void setAntiAlias(boolean antiAlias) {
+        mHourPaint.setAntiAlias(antiAlias);
+        mCurrentHourPaint.setAntiAlias(antiAlias);
+        mGmtHourPaint.setAntiAlias(antiAlias);
+        mUTCLabelPaint.setAntiAlias(antiAlias);
+    }
+
+    /**
+     * Sets the text sizes in pixels. The UTC label uses the hour size. On round screens the label
+     * is drawn in the center, otherwise in the top right corner.
+     */
+    public void setTextSizes(boolean isRound, float hourTextSize, float bigHourTextSize) {
+        mIsRound = isRound;
+        mHourPaint.setTextSize(hourTextSize);
+        mCurrentHourPaint.setTextSize(bigHourTextSize);
+        mGmtHourPaint.setTextSize(bigHourTextSize);
+        mUTCLabelPaint.setTextSize(hourTextSize);
+        mUTCLabelPaint.setTextAlign(isRound ? FacePaint.Align.CENTER : FacePaint.Align.LEFT);
+        mTextMetricsValid = false;
+        mLabel = null;
+    }
+
+    /** Draws every part of the face. */
+    public void draw(FaceCanvas canvas, FaceTime time, float width, float height) {
+        drawBackground(canvas);
+        drawHands(canvas, time, width, height);
+        drawSpiral(canvas, time, width, height);
+        drawUtcLabel(canvas, time, width, height);
+    }
+
+    public void drawBackground(FaceCanvas canvas) {
+        FrameTrace.beginSection(FrameTrace.DRAW_BACKGROUND);
+        canvas.drawColor(mBackgroundColor);
+        FrameTrace.endSection();
+    }
+
+    public void drawHands(FaceCanvas canvas, FaceTime time, float width, float height) {
+        FrameTrace.beginSection(FrameTrace.DRAW_HANDS);
+        ensureTextMetrics(canvas);
+        float centerX = width / 2f;
+        float centerY = height / 2f;
+        float radius = Math.min(centerX, centerY);
+
+        // Draw the minutes.
+        float minuteRot = FaceGeometry.calculateMinuteRot(time.getMinute());
+        float minuteRadius = FaceGeometry.calculateMinuteArmRadius(radius, mArmTextHeight);
+        canvas.drawLine(centerX, centerY,
+                centerX + FaceGeometry.calculateXComponent(minuteRot, minuteRadius),
+                centerY + FaceGeometry.calculateYComponent(minuteRot, minuteRadius),
+                mMinuteHandPaint);
+
+        float hourFloat = (float) time.getHour() + (float) time.getMinute() / 60f;
+        float hourRot = FaceGeometry.calculateHourRot(hourFloat);
+        float hourRadius = FaceGeometry.calculateHourArmRadius(radius, mArmTextHeight);
+        canvas.drawLine(centerX, centerY,
+                centerX + FaceGeometry.calculateXComponent(hourRot, hourRadius),
+                centerY + FaceGeometry.calculateYComponent(hourRot, hourRadius),
+                mHourHandPaint);
+        FrameTrace.endSection();
+    }
+
+    /** Draws the hours in a spiral, with the local and GMT hours bigger. */
+    public void drawSpiral(FaceCanvas canvas, FaceTime time, float width, float height) {
+        FrameTrace.beginSection(FrameTrace.DRAW_SPIRAL);
+        ensureTextMetrics(canvas);
+        float centerX = width / 2f;
+        float centerY = height / 2f;
+        float radius = Math.min(centerX, centerY);
+
+        int localHour = time.getHour();
+        int gmtHour = time.getGmtHour();
+        for (int hour = 0; hour < HOURS; hour++) {
+            if (hour == localHour) {
+                drawHour(canvas, hour, mCurrentHourPaint, mHourOuterTextHeights[hour],
+                        mBigHourTextHeights[hour], radius, centerX, centerY);
+            } else if (hour == gmtHour) {
+                drawHour(canvas, hour, mGmtHourPaint, mHourOuterTextHeights[hour],
+                        mBigHourTextHeights[hour], radius, centerX, centerY);
+            } else {
+                drawHour(canvas, hour, mHourPaint, mHourOuterTextHeights[hour],
+                        mHourTextHeights[hour], radius, centerX, centerY);
+            }
+        }
+        FrameTrace.endSection();
+    }
+
+    public void drawUtcLabel(FaceCanvas canvas, FaceTime time, float width, float height) {
+        FrameTrace.beginSection(FrameTrace.DRAW_UTC_LABEL);
+        float offsetHours = time.getUtcOffsetHours();
+        if (mLabel == null || offsetHours != mLabelOffsetHours) {
+            mLabelOffsetHours = offsetHours;
+            mLabel = FaceGeometry.formatUTCDiff(offsetHours);
+            mLabelWidth = canvas.measureText(mLabel, mUTCLabelPaint);
+        }
+
+        if (mIsRound) {
+            canvas.drawText(mLabel, width / 2f, height / 2f, mUTCLabelPaint);
+        } else {
+            float x = width - mLabelWidth - 20;
+            canvas.drawText(mLabel, x, 30, mUTCLabelPaint);
+        }
+        FrameTrace.endSection();
+    }
+
+    private void drawHour(FaceCanvas canvas, int hour, FacePaint paint, float outerTextHeight,
+            int textHeight, float radius, float centerX, float centerY) {
+        float hourRadius = FaceGeometry.calculateHourRadius(radius, hour, outerTextHeight);
+        float rot = FaceGeometry.calculateHourRot(hour);
+        float textCenterX = centerX + FaceGeometry.calculateXComponent(rot, hourRadius);
+        float textCenterY = centerY + FaceGeometry.calculateYComponent(rot, hourRadius);
+        canvas.drawText(Integer.toString(hour), textCenterX, textCenterY + textHeight / 2,
+                paint);
+    }
+
+    /**
+     * Measures the numerals at the current text sizes. The spiral is laid out from the height of
+     * the first digit of each numeral at the normal hour size, even for the enlarged local and GMT
+     * hours, and each numeral is centered on its full height at its own size.
+     */
+    private void ensureTextMetrics(FaceCanvas canvas) {
+        if (mTextMetricsValid) {
+            return;
+        }
+        mArmTextHeight = canvas.getTextHeight("24", 0, 1, mHourPaint);
+        for (int hour = 0; hour < HOURS; hour++) {
+            String text = Integer.toString(hour);
+            mHourOuterTextHeights[hour] = canvas.getTextHeight(text, 0, 1, mHourPaint);
+            mHourTextHeights[hour] = canvas.getTextHeight(text, 0, text.length(), mHourPaint);
+            mBigHourTextHeights[hour] =
+                    canvas.getTextHeight(text, 0, text.length(), mCurrentHourPaint);
+        }
+        mTextMetricsValid = true;
+    }
+
+    private void updateAlpha() {
+        mHourPaint.setAlpha(mMute ? 100 : 255);
+        mHourHandPaint.setAlpha(mMute ? 100 : 255);
+        mMinuteHandPaint.setAlpha(mMute ? 80 : 255);
+        mUTCLabelPaint.setAlpha(mMute ? 80 : 255);
+    }
+}
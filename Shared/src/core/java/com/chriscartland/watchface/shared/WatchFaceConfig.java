@@ -0,0 +1,73 @@
+/*
+ * Copyright 2015 Chris Cartland. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.chriscartland.watchface.shared;
+
+/**
+ * Keys of the watch face config {@code DataMap}, shared by the watch and the companion app.
+ * <p>
+ * The color keys are sent by the companion and only hold the colors the user has changed. The
+ * screen keys are written by the watch so that the companion can preview the face at the size and
+ * shape of the watch.
+ */
+public final class WatchFaceConfig {
+
+    /**
+     * The path for the {@code DataItem} containing the config, and for the messages the companion
+     * sends to update it.
+     */
+    public static final String PATH_WITH_FEATURE = "/watch_face_config/Digital";
+
+    /** The background color. */
+    public static final String KEY_BACKGROUND_COLOR = "BACKGROUND_COLOR";
+
+    /** The color of the hour numerals. */
+    public static final String KEY_HOURS_COLOR = "HOURS_COLOR";
+
+    /** The color of the minute hand. */
+    public static final String KEY_MINUTES_COLOR = "MINUTES_COLOR";
+
+    /**
+     * The color of the UTC offset label. The companion calls this the seconds color, since the
+     * face has no second hand.
+     */
+    public static final String KEY_SECONDS_COLOR = "SECONDS_COLOR";
+
+    /** Whether the watch screen is round, as a boolean. */
+    public static final String KEY_SCREEN_ROUND = "SCREEN_ROUND";
+
+    /** The width of the watch screen in pixels, as an int. */
+    public static final String KEY_SCREEN_WIDTH = "SCREEN_WIDTH";
+
+    /** The height of the watch screen in pixels, as an int. */
+    public static final String KEY_SCREEN_HEIGHT = "SCREEN_HEIGHT";
+
+    /** The size of the hour numerals on the watch in pixels, as a float. */
+    public static final String KEY_HOUR_TEXT_SIZE = "HOUR_TEXT_SIZE";
+
+    /** The size of the local and GMT hour numerals on the watch in pixels, as a float. */
+    public static final String KEY_BIG_HOUR_TEXT_SIZE = "BIG_HOUR_TEXT_SIZE";
+
+    /** Returns whether {@code configKey} is one of the color keys. */
+    public static boolean isColorKey(String configKey) {
+        return configKey.equals(KEY_BACKGROUND_COLOR)
+                || configKey.equals(KEY_HOURS_COLOR)
+                || configKey.equals(KEY_MINUTES_COLOR)
+                || configKey.equals(KEY_SECONDS_COLOR);
+    }
+
+    private WatchFaceConfig() { }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2015 Chris Cartland. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.chriscartland.watchface.shared;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+
+/**
+ * {@link FaceCanvas} that draws on an Android {@link Canvas}. The {@link Paint} for each
+ * {@link FacePaint} is built once and kept on the {@link FacePaint} until one of its properties
+ * changes.
+ */
+public class AndroidFaceCanvas implements FaceCanvas {
+
+    private static final Typeface BOLD_TYPEFACE =
+            Typeface.create(Typeface.SANS_SERIF, Typeface.BOLD);
+    private static final Typeface NORMAL_TYPEFACE =
+            Typeface.create(Typeface.SANS_SERIF, Typeface.NORMAL);
+
+    private final Rect mTextBounds = new Rect();
+    private Canvas mCanvas;
+
+    public AndroidFaceCanvas() { }
+
+    public AndroidFaceCanvas(Canvas canvas) {
+        mCanvas = canvas;
+    }
+
+    /** Sets the canvas to draw on, so that one instance can be reused for every frame. */
+    public void setCanvas(Canvas canvas) {
+        mCanvas = canvas;
+    }
+
+    @Override
+    public void drawColor(int color) {
+        mCanvas.drawColor(color);
+    }
+
+    @Override
+    public void drawLine(float startX, float startY, float stopX, float stopY, FacePaint paint) {
+        mCanvas.drawLine(startX, startY, stopX, stopY, toPaint(paint));
+    }
+
+    @Override
+    public void drawText(String text, float x, float y, FacePaint paint) {
+        mCanvas.drawText(text, x, y, toPaint(paint));
+    }
+
+    @Override
+    public float measureText(String text, FacePaint paint) {
+        return toPaint(paint).measureText(text);
+    }
+
+    @Override
+    public int getTextHeight(String text, int start, int end, FacePaint paint) {
+        toPaint(paint).getTextBounds(text, start, end, mTextBounds);
+        return mTextBounds.height();
+    }
+
+    private static Paint toPaint(FacePaint facePaint) {
+        Object platformPaint = facePaint.getPlatformPaint();
+        if (platformPaint instanceof Paint && !facePaint.isPlatformPaintStale()) {
+            return (Paint) platformPaint;
+        }
+        Paint paint = (platformPaint instanceof Paint) ? (Paint) platformPaint : new Paint();
+        paint.setColor(facePaint.getColor());
+        paint.setStrokeWidth(facePaint.getStrokeWidth());
+        paint.setStrokeCap(facePaint.isRoundCap() ? Paint.Cap.ROUND : Paint.Cap.BUTT);
+        paint.setTextSize(facePaint.getTextSize());
+        paint.setTypeface(facePaint.isBold() ? BOLD_TYPEFACE : NORMAL_TYPEFACE);
+        paint.setTextAlign(facePaint.getTextAlign() == FacePaint.Align.CENTER
+                ? Paint.Align.CENTER : Paint.Align.LEFT);
+        paint.setAntiAlias(facePaint.isAntiAlias());
+        facePaint.setPlatformPaint(paint);
+        return paint;
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2015 Chris Cartland. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.chriscartland.watchface.shared;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+
+public class AmbientRendererTest extends TestCase {
+
+    /** Counts the calls made to it and keeps the colors and paints it drew with. */
+    private static class CountingFaceCanvas implements FaceCanvas {
+        int mDraws;
+        int mMeasures;
+        final List<Integer> mColors = new ArrayList<Integer>();
+        final List<FacePaint> mPaints = new ArrayList<FacePaint>();
+
+        @Override
+        public void drawColor(int color) {
+            mDraws++;
+            mColors.add(color);
+        }
+
+        @Override
+        public void drawLine(float startX, float startY, float stopX, float stopY,
+                FacePaint paint) {
+            draw(paint);
+        }
+
+        @Override
+        public void drawText(String text, float x, float y, FacePaint paint) {
+            draw(paint);
+        }
+
+        @Override
+        public float measureText(String text, FacePaint paint) {
+            mMeasures++;
+            return text.length() * paint.getTextSize() / 2;
+        }
+
+        @Override
+        public int getTextHeight(String text, int start, int end, FacePaint paint) {
+            mMeasures++;
+            return Math.round(paint.getTextSize() * 0.7f);
+        }
+
+        private void draw(FacePaint paint) {
+            mDraws++;
+            mColors.add(paint.getColor());
+            mPaints.add(paint);
+        }
+
+        void reset() {
+            mDraws = 0;
+            mMeasures = 0;
+            mColors.clear();
+            mPaints.clear();
+        }
+    }
+
+    private static final long MINUTE_MILLIS = 60 * 1000;
+    private static final long DAY_MILLIS = 24 * 60 * MINUTE_MILLIS;
+
+    /** 2015-06-01 00:00 UTC. */
+    private static final long START_MILLIS = 1433116800000L;
+
+    private static final TimeZone GMT = TimeZone.getTimeZone("GMT");
+    private static final TimeZone PACIFIC = TimeZone.getTimeZone("GMT-8");
+
+    /** Colors that are neither fully on nor fully off in any channel. */
+    private static FacePalette unquantizedPalette() {
+        FacePalette palette = new FacePalette();
+        palette.setColorForKey(WatchFaceConfig.KEY_BACKGROUND_COLOR, 0xFF203040);
+        palette.setColorForKey(WatchFaceConfig.KEY_HOURS_COLOR, 0xFFC0A090);
+        palette.setColorForKey(WatchFaceConfig.KEY_MINUTES_COLOR, 0xFF9A7F10);
+        palette.setColorForKey(WatchFaceConfig.KEY_SECONDS_COLOR, 0xFF7F8081);
+        return palette;
+    }
+
+    public void testLocalHourIsGmtHour() {
+        for (boolean round : new boolean[] {true, false}) {
+            for (boolean lowBit : new boolean[] {true, false}) {
+                checkDay(GMT, round, lowBit);
+            }
+        }
+    }
+
+    public void testLocalHourIsNotGmtHour() {
+        for (boolean round : new boolean[] {true, false}) {
+            for (boolean lowBit : new boolean[] {true, false}) {
+                checkDay(PACIFIC, round, lowBit);
+            }
+        }
+    }
+
+    public void testLowBitMuteDrawsQuantizedOpaqueColors() {
+        AmbientRenderer renderer = newRenderer(true, true);
+        renderer.setMute(true);
+        CountingFaceCanvas canvas = new CountingFaceCanvas();
+
+        renderer.draw(canvas, time(PACIFIC, START_MILLIS), 320, 320);
+
+        assertQuantized(canvas);
+    }
+
+    public void testFullColorKeepsColors() {
+        AmbientRenderer renderer = newRenderer(false, false);
+        CountingFaceCanvas canvas = new CountingFaceCanvas();
+
+        renderer.draw(canvas, time(PACIFIC, START_MILLIS), 280, 280);
+
+        assertEquals(0xFF203040, (int) canvas.mColors.get(0));
+        for (FacePaint paint : canvas.mPaints) {
+            assertTrue(paint.isAntiAlias());
+        }
+    }
+
+    /**
+     * Draws a frame for every minute of a day and checks each against the op budget. Only the
+     * first frame may measure text.
+     */
+    private void checkDay(TimeZone timeZone, boolean round, boolean lowBit) {
+        String name = timeZone.getID() + (round ? " round" : " square")
+                + (lowBit ? " low-bit" : "");
+        AmbientRenderer renderer = newRenderer(round, lowBit);
+        CountingFaceCanvas canvas = new CountingFaceCanvas();
+        FaceTime time = time(timeZone, START_MILLIS);
+        renderer.draw(canvas, time, 320, 320);
+
+        for (long millis = START_MILLIS; millis < START_MILLIS + DAY_MILLIS;
+                millis += MINUTE_MILLIS) {
+            canvas.reset();
+            time.set(millis);
+
+            renderer.draw(canvas, time, 320, 320);
+
+            String frame = name + " at " + time.getHour() + ":" + time.getMinute();
+            assertTrue(frame + ": " + canvas.mDraws + " draws",
+                    canvas.mDraws <= AmbientRenderer.MAX_DRAW_OPS);
+            assertEquals(frame + ": measured text", 0, canvas.mMeasures);
+            if (lowBit) {
+                assertQuantized(canvas);
+            }
+        }
+    }
+
+    private static AmbientRenderer newRenderer(boolean round, boolean lowBit) {
+        AmbientRenderer renderer = new AmbientRenderer();
+        renderer.setTextSizes(round, 18f, 36f);
+        renderer.setPalette(unquantizedPalette());
+        renderer.setLowBitAmbient(lowBit);
+        return renderer;
+    }
+
+    private static FaceTime time(TimeZone timeZone, long millis) {
+        FaceTime time = new FaceTime(timeZone);
+        time.set(millis);
+        return time;
+    }
+
+    private static void assertQuantized(CountingFaceCanvas canvas) {
+        for (int color : canvas.mColors) {
+            for (int shift = 0; shift < 32; shift += 8) {
+                int channel = (color >>> shift) & 0xFF;
+                assertTrue(Integer.toHexString(color) + " is not quantized",
+                        channel == 0 || channel == 0xFF);
+            }
+            assertEquals(0xFF, color >>> 24);
+        }
+        for (FacePaint paint : canvas.mPaints) {
+            assertFalse(paint.isAntiAlias());
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2015 Chris Cartland. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.chriscartland.watchface.shared;
+
+import com.chriscartland.watchface.shared.FrameBudgetGovernor.Tier;
+
+import junit.framework.TestCase;
+
+public class FrameBudgetGovernorTest extends TestCase {
+
+    private static final long MS = 1000000L;
+    private static final int WINDOW = FrameBudgetGovernor.DEFAULT_WINDOW_FRAMES;
+
+    private FrameBudgetGovernor mGovernor;
+
+    @Override
+    protected void setUp() {
+        mGovernor = new FrameBudgetGovernor();
+    }
+
+    public void testStartsAtFullQuality() {
+        assertEquals(Tier.FULL, mGovernor.getTier());
+    }
+
+    public void testThresholds() {
+        assertNanos(15 * MS, mGovernor.getFrameBudgetNanos(Tier.FULL));
+        assertNanos(30 * MS, mGovernor.getFrameBudgetNanos(Tier.STATIC_NUMERALS));
+        assertNanos(15 * MS, mGovernor.getStepDownThresholdNanos(Tier.FULL));
+        assertEquals(-1, mGovernor.getStepUpThresholdNanos(Tier.FULL));
+        assertNanos(11250000, mGovernor.getStepUpThresholdNanos(Tier.REDUCED_FRAME_RATE));
+        assertNanos(22500000, mGovernor.getStepUpThresholdNanos(Tier.NO_ANTI_ALIAS));
+    }
+
+    public void testInvalidThresholdsAreRejected() {
+        assertInvalid(0f, WINDOW, 0.75f);
+        assertInvalid(0.3f, 0, 0.75f);
+        assertInvalid(0.3f, WINDOW, 0f);
+        assertInvalid(0.3f, WINDOW, 1.5f);
+    }
+
+    public void testWaitsForAFullWindow() {
+        assertFalse(drawFrames(WINDOW - 1, 40 * MS));
+        assertEquals(Tier.FULL, mGovernor.getTier());
+
+        assertTrue(mGovernor.onFrameDrawn(40 * MS));
+        assertEquals(Tier.REDUCED_FRAME_RATE, mGovernor.getTier());
+    }
+
+    public void testStepsDownOneTierPerWindow() {
+        drawFrames(WINDOW, 40 * MS);
+        assertEquals(Tier.REDUCED_FRAME_RATE, mGovernor.getTier());
+        drawFrames(WINDOW, 40 * MS);
+        assertEquals(Tier.NO_ANTI_ALIAS, mGovernor.getTier());
+        drawFrames(WINDOW, 40 * MS);
+        assertEquals(Tier.STATIC_NUMERALS, mGovernor.getTier());
+        assertFalse(drawFrames(10 * WINDOW, 40 * MS));
+        assertEquals(Tier.STATIC_NUMERALS, mGovernor.getTier());
+    }
+
+    public void testStaysWithinBudget() {
+        assertFalse(drawFrames(10 * WINDOW, 10 * MS));
+        assertEquals(Tier.FULL, mGovernor.getTier());
+    }
+
+    public void testStepsUpWhenTheLoadDrops() {
+        drawFrames(WINDOW, 16 * MS);
+        assertEquals(Tier.REDUCED_FRAME_RATE, mGovernor.getTier());
+        drawFrames(WINDOW, 16 * MS);
+        assertEquals(Tier.REDUCED_FRAME_RATE, mGovernor.getTier());
+
+        drawFrames(WINDOW, 5 * MS);
+        assertEquals(Tier.FULL, mGovernor.getTier());
+    }
+
+    public void testDoesNotReturnToATierThatWouldStillBeOverBudget() {
+        // The numeral layer makes the cheapest tier far cheaper than the one above it.
+        CostModel costs = new CostModel(34, 34, 34, 8);
+        int changes = drawFrames(costs, 50 * WINDOW);
+
+        assertEquals(Tier.STATIC_NUMERALS, mGovernor.getTier());
+        assertEquals(3, changes);
+    }
+
+    public void testReturnsToBetterTiersOnceTheyFitAgain() {
+        drawFrames(new CostModel(34, 34, 34, 8), 10 * WINDOW);
+        assertEquals(Tier.STATIC_NUMERALS, mGovernor.getTier());
+
+        // The same tiers at a lighter load. Full quality would still be over its budget.
+        int changes = drawFrames(new CostModel(15, 15, 15, 4), 50 * WINDOW);
+
+        assertEquals(Tier.REDUCED_FRAME_RATE, mGovernor.getTier());
+        assertEquals(2, changes);
+    }
+
+    public void testClearFramesKeepsTheTier() {
+        drawFrames(WINDOW, 40 * MS);
+        drawFrames(WINDOW - 1, 40 * MS);
+        mGovernor.clearFrames();
+
+        assertFalse(mGovernor.onFrameDrawn(40 * MS));
+        assertEquals(Tier.REDUCED_FRAME_RATE, mGovernor.getTier());
+    }
+
+    /** Frame times in milliseconds for each tier, from best to cheapest. */
+    private static class CostModel {
+        private final long[] mCostNanos;
+
+        CostModel(long... costMs) {
+            mCostNanos = new long[costMs.length];
+            for (int i = 0; i < costMs.length; i++) {
+                mCostNanos[i] = costMs[i] * MS;
+            }
+        }
+
+        long getCostNanos(Tier tier) {
+            return mCostNanos[tier.ordinal()];
+        }
+    }
+
+    /** Draws {@code count} frames at the cost of the current tier and returns how many switches. */
+    private int drawFrames(CostModel costs, int count) {
+        int changes = 0;
+        for (int i = 0; i < count; i++) {
+            if (mGovernor.onFrameDrawn(costs.getCostNanos(mGovernor.getTier()))) {
+                changes++;
+            }
+        }
+        return changes;
+    }
+
+    /** Draws {@code count} frames of {@code drawNanos} and returns whether the tier changed. */
+    private boolean drawFrames(int count, long drawNanos) {
+        boolean changed = false;
+        for (int i = 0; i < count; i++) {
+            changed |= mGovernor.onFrameDrawn(drawNanos);
+        }
+        return changed;
+    }
+
+    /** The fractions are floats, so the thresholds can be a nanosecond off. */
+    private static void assertNanos(long expected, long actual) {
+        assertEquals(expected, actual, 1.0);
+    }
+
+    private static void assertInvalid(float budgetFraction, int windowFrames, float stepUpRatio) {
+        try {
+            new FrameBudgetGovernor(budgetFraction, windowFrames, stepUpRatio);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2015 Chris Cartland. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.chriscartland.watchface.shared;
+
+import junit.framework.TestCase;
+
+import java.util.Map;
+
+public class RecordingTraceBackendTest extends TestCase {
+
+    private RecordingTraceBackend mBackend;
+
+    @Override
+    protected void setUp() {
+        mBackend = new RecordingTraceBackend();
+    }
+
+    @Override
+    protected void tearDown() {
+        FrameTrace.setBackend(null);
+    }
+
+    public void testNestedSectionsAreRecordedSeparately() {
+        mBackend.beginSection("outer");
+        mBackend.beginSection("inner");
+        spin();
+        mBackend.endSection();
+        mBackend.endSection();
+
+        Map<String, RecordingTraceBackend.Timing> timings = mBackend.getTimings();
+        assertEquals(2, timings.size());
+        assertEquals(1, timings.get("outer").getCount());
+        assertEquals(1, timings.get("inner").getCount());
+        assertTrue(timings.get("inner").getTotalNanos() > 0);
+        assertTrue(timings.get("outer").getTotalNanos() >= timings.get("inner").getTotalNanos());
+    }
+
+    public void testRepeatedSectionsAccumulate() {
+        for (int i = 0; i < 3; i++) {
+            mBackend.beginSection("draw");
+            spin();
+            mBackend.endSection();
+        }
+
+        RecordingTraceBackend.Timing timing = mBackend.getTimings().get("draw");
+        assertEquals(3, timing.getCount());
+        assertTrue(timing.getMaxNanos() <= timing.getTotalNanos());
+        assertEquals(timing.getTotalNanos() / 3, timing.getAverageNanos());
+    }
+
+    public void testUnmatchedEndSectionThrows() {
+        try {
+            mBackend.endSection();
+            fail("endSection() without beginSection() should throw");
+        } catch (IllegalStateException expected) {
+        }
+
+        mBackend.beginSection("draw");
+        mBackend.endSection();
+        try {
+            mBackend.endSection();
+            fail("endSection() after the last section closed should throw");
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    public void testSectionsAreTrackedPerThread() throws InterruptedException {
+        final Throwable[] failure = new Throwable[1];
+        mBackend.beginSection("main");
+        Thread other = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    // The section open on the main thread is not visible here.
+                    try {
+                        mBackend.endSection();
+                        fail("endSection() closed a section opened on another thread");
+                    } catch (IllegalStateException expected) {
+                    }
+                    mBackend.beginSection("other");
+                    mBackend.endSection();
+                } catch (Throwable t) {
+                    failure[0] = t;
+                }
+            }
+        });
+        other.start();
+        other.join();
+        mBackend.endSection();
+
+        assertNull(failure[0]);
+        Map<String, RecordingTraceBackend.Timing> timings = mBackend.getTimings();
+        assertEquals(1, timings.get("main").getCount());
+        assertEquals(1, timings.get("other").getCount());
+    }
+
+    public void testTimingsAreASnapshot() {
+        mBackend.beginSection("draw");
+        mBackend.endSection();
+        Map<String, RecordingTraceBackend.Timing> timings = mBackend.getTimings();
+
+        mBackend.beginSection("draw");
+        mBackend.endSection();
+
+        assertEquals(1, timings.get("draw").getCount());
+        assertEquals(2, mBackend.getTimings().get("draw").getCount());
+        try {
+            timings.clear();
+            fail("timings should be unmodifiable");
+        } catch (UnsupportedOperationException expected) {
+        }
+    }
+
+    public void testReset() {
+        mBackend.beginSection("draw");
+        mBackend.endSection();
+        mBackend.reset();
+
+        assertTrue(mBackend.getTimings().isEmpty());
+    }
+
+    public void testRecordsSectionsFromFrameTrace() {
+        FrameTrace.setBackend(mBackend);
+        FrameTrace.beginSection(FrameTrace.DRAW);
+        FrameTrace.beginSection(FrameTrace.DRAW_HANDS);
+        FrameTrace.endSection();
+        FrameTrace.endSection();
+
+        assertEquals(1, mBackend.getTimings().get(FrameTrace.DRAW).getCount());
+        assertEquals(1, mBackend.getTimings().get(FrameTrace.DRAW_HANDS).getCount());
+    }
+
+    /** Waits until the clock visibly advances, so that a section has a nonzero duration. */
+    private static void spin() {
+        long start = System.nanoTime();
+        while (System.nanoTime() == start) {
+            // Busy wait.
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2015 Chris Cartland. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.chriscartland.wearable.watchface;
+
+import android.util.Log;
+
+import com.chriscartland.watchface.shared.FacePalette;
+import com.chriscartland.watchface.shared.WatchFaceConfig;
+import com.google.android.gms.wearable.DataMap;
+
+/**
+ * Applies config {@link DataMap}s to a {@link FacePalette}. Only the color keys whose color
+ * differs from the one already applied are set, so a config that changes nothing doesn't cost a
+ * redraw.
+ */
+class ConfigApplier {
+    private static final String TAG = "UTCConfigApplier";
+
+    private final FacePalette mPalette;
+
+    /** The config keys and colors that have been applied to {@link #mPalette} so far. */
+    private final DataMap mAppliedConfig = new DataMap();
+
+    ConfigApplier(FacePalette palette) {
+        mPalette = palette;
+    }
+
+    /**
+     * Applies the color keys of {@code config} that differ from the ones applied so far.
+     *
+     * @return whether the palette changed, in which case the face should be redrawn once
+     */
+    boolean apply(DataMap config) {
+        boolean changed = false;
+        for (String configKey : config.keySet()) {
+            if (!WatchFaceConfig.isColorKey(configKey)) {
+                continue;
+            }
+            int color = config.getInt(configKey);
+            if (mAppliedConfig.containsKey(configKey)
+                    && mAppliedConfig.getInt(configKey) == color) {
+                continue;
+            }
+            if (Log.isLoggable(TAG, Log.DEBUG)) {
+                Log.d(TAG, "Found watch face config key: " + configKey + " -> "
+                        + Integer.toHexString(color));
+            }
+            mPalette.setColorForKey(configKey, color);
+            mAppliedConfig.putInt(configKey, color);
+            changed = true;
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2015 Chris Cartland. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.chriscartland.wearable.watchface;
+
+import android.util.Log;
+
+import com.google.android.gms.wearable.DataMap;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Merges changes into the watch face config. Changes come from the companion's messages and from
+ * the running engines, often back to back. They are merged one at a time on a single executor
+ * thread into an in-memory copy of the config, so no change is lost to a merge that read an older
+ * config. The config is only stored when a value actually changed.
+ */
+public class ConfigDataPublisher {
+    private static final String TAG = "ConfigDataPublisher";
+
+    /** Where the config is kept. Only called on the publisher's executor, so it may block. */
+    public interface ConfigStore {
+        /**
+         * Returns the stored config, an empty {@link DataMap} if there is none yet, or null if it
+         * could not be read.
+         */
+        DataMap load();
+
+        /** Replaces the stored config with {@code config} and returns whether that succeeded. */
+        boolean save(DataMap config);
+    }
+
+    private final ConfigStore mStore;
+    private final Executor mExecutor;
+
+    /** The stored config, or null until it has been loaded. Only used on {@link #mExecutor}. */
+    private DataMap mConfig;
+
+    /**
+     * @param executor runs the merges. It must run them one at a time, in order, such as
+     *         {@link java.util.concurrent.Executors#newSingleThreadExecutor()}.
+     */
+    public ConfigDataPublisher(ConfigStore store, Executor executor) {
+        mStore = store;
+        mExecutor = executor;
+    }
+
+    /**
+     * Overwrites (or sets, if not present) the keys in the config with the ones appearing in
+     * {@code configKeysToOverwrite}. Returns immediately; the merge happens on the executor.
+     */
+    public void overwriteKeys(DataMap configKeysToOverwrite) {
+        final DataMap keys = new DataMap();
+        keys.putAll(configKeysToOverwrite);
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                merge(keys);
+            }
+        });
+    }
+
+    /**
+     * Merges {@code keys} into the config and stores it if any value changed. Returns whether the
+     * config was stored. Must only be called on the executor.
+     */
+    boolean merge(DataMap keys) {
+        if (mConfig == null) {
+            DataMap stored = mStore.load();
+            if (stored == null) {
+                Log.w(TAG, "Failed to load the config, dropping " + keys);
+                return false;
+            }
+            mConfig = new DataMap();
+            mConfig.putAll(stored);
+        }
+        if (!hasChanges(mConfig, keys)) {
+            return false;
+        }
+        DataMap merged = new DataMap();
+        merged.putAll(mConfig);
+        merged.putAll(keys);
+        if (!mStore.save(merged)) {
+            // The stored config is unknown now. Load it again before the next merge.
+            Log.w(TAG, "Failed to store the config with " + keys);
+            mConfig = null;
+            return false;
+        }
+        mConfig = merged;
+        if (Log.isLoggable(TAG, Log.DEBUG)) {
+            Log.d(TAG, "Stored config: " + merged);
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether applying {@code delta} to {@code config} would change any value.
+     */
+    static boolean hasChanges(DataMap config, DataMap delta) {
+        for (String key : delta.keySet()) {
+            Object value = delta.get(key);
+            if (!config.containsKey(key) || !value.equals(config.get(key))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
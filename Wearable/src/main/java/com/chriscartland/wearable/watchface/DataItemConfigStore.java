@@ -0,0 +1,107 @@
+/*
+ * Copyright 2015 Chris Cartland. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.chriscartland.wearable.watchface;
+
+import android.content.Context;
+import android.net.Uri;
+import android.util.Log;
+
+import com.chriscartland.watchface.shared.WatchFaceConfig;
+import com.google.android.gms.common.ConnectionResult;
+import com.google.android.gms.common.api.GoogleApiClient;
+import com.google.android.gms.wearable.DataApi;
+import com.google.android.gms.wearable.DataMap;
+import com.google.android.gms.wearable.DataMapItem;
+import com.google.android.gms.wearable.NodeApi;
+import com.google.android.gms.wearable.PutDataMapRequest;
+import com.google.android.gms.wearable.Wearable;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ConfigDataPublisher.ConfigStore} backed by the config
+ * {@link com.google.android.gms.wearable.DataItem} on the local node. Every call blocks, so it
+ * must not be used on the main thread.
+ */
+class DataItemConfigStore implements ConfigDataPublisher.ConfigStore {
+    private static final String TAG = "DataItemConfigStore";
+
+    private static final long CONNECTION_TIMEOUT_SECONDS = 30;
+
+    private final GoogleApiClient mGoogleApiClient;
+
+    DataItemConfigStore(Context context) {
+        mGoogleApiClient = new GoogleApiClient.Builder(context)
+                .addApi(Wearable.API)
+                .build();
+    }
+
+    @Override
+    public DataMap load() {
+        if (!connect()) {
+            return null;
+        }
+        NodeApi.GetLocalNodeResult localNodeResult =
+                Wearable.NodeApi.getLocalNode(mGoogleApiClient).await();
+        if (!localNodeResult.getStatus().isSuccess()) {
+            return null;
+        }
+        Uri uri = new Uri.Builder()
+                .scheme("wear")
+                .path(WatchFaceConfig.PATH_WITH_FEATURE)
+                .authority(localNodeResult.getNode().getId())
+                .build();
+        DataApi.DataItemResult dataItemResult =
+                Wearable.DataApi.getDataItem(mGoogleApiClient, uri).await();
+        if (!dataItemResult.getStatus().isSuccess()) {
+            return null;
+        }
+        if (dataItemResult.getDataItem() == null) {
+            return new DataMap();
+        }
+        return DataMapItem.fromDataItem(dataItemResult.getDataItem()).getDataMap();
+    }
+
+    @Override
+    public boolean save(DataMap config) {
+        if (!connect()) {
+            return false;
+        }
+        PutDataMapRequest putDataMapRequest =
+                PutDataMapRequest.create(WatchFaceConfig.PATH_WITH_FEATURE);
+        putDataMapRequest.getDataMap().putAll(config);
+        DataApi.DataItemResult result = Wearable.DataApi.putDataItem(mGoogleApiClient,
+                putDataMapRequest.asPutDataRequest()).await();
+        if (Log.isLoggable(TAG, Log.DEBUG)) {
+            Log.d(TAG, "putDataItem result status: " + result.getStatus());
+        }
+        return result.getStatus().isSuccess();
+    }
+
+    private boolean connect() {
+        if (mGoogleApiClient.isConnected()) {
+            return true;
+        }
+        ConnectionResult connectionResult = mGoogleApiClient.blockingConnect(
+                CONNECTION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        if (!connectionResult.isSuccess()) {
+            Log.e(TAG, "Failed to connect to GoogleApiClient: " + connectionResult);
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2015 Chris Cartland. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.chriscartland.wearable.watchface;
+
+import android.util.Log;
+
+import com.chriscartland.watchface.shared.FrameTrace;
+import com.chriscartland.watchface.shared.WatchFaceConfig;
+import com.google.android.gms.wearable.DataMap;
+import com.google.android.gms.wearable.MessageEvent;
+import com.google.android.gms.wearable.WearableListenerService;
+
+/**
+ * A {@link WearableListenerService} listening for config messages from the companion app
+ * ({@code DigitalWatchFaceCompanionConfigActivity}). Each message carries only the keys the user
+ * just changed; they are merged into the config {@link com.google.android.gms.wearable.DataItem},
+ * and running {@link UTCWatchFaceService} engines pick up the change through the
+ * {@link com.google.android.gms.wearable.DataApi}.
+ */
+public class UTCWatchFaceConfigListenerService extends WearableListenerService {
+    private static final String TAG = "UTCConfigListener";
+
+    @Override // WearableListenerService
+    public void onMessageReceived(MessageEvent messageEvent) {
+        if (!isConfigMessage(messageEvent)) {
+            return;
+        }
+        FrameTrace.beginSection(FrameTrace.RECEIVE_CONFIG);
+        try {
+            DataMap configKeysToOverwrite = readConfigKeys(messageEvent);
+            if (Log.isLoggable(TAG, Log.DEBUG)) {
+                Log.d(TAG, "Received watch face config message: " + configKeysToOverwrite);
+            }
+            UTCWatchFaceUtil.overwriteKeysInConfigDataMap(this, configKeysToOverwrite);
+        } finally {
+            FrameTrace.endSection();
+        }
+    }
+
+    /** Returns whether {@code messageEvent} is a config message from the companion app. */
+    static boolean isConfigMessage(MessageEvent messageEvent) {
+        return messageEvent.getPath().equals(WatchFaceConfig.PATH_WITH_FEATURE);
+    }
+
+    /** Decodes the config keys to overwrite carried by a config message. */
+    static DataMap readConfigKeys(MessageEvent messageEvent) {
+        // It's allowed that the message carries only some of the keys used in the config DataItem
+        // and skips the ones that we don't want to change.
+        return DataMap.fromByteArray(messageEvent.getData());
+    }
+}
@@ -21,61 +21,102 @@ import android.content.Context;
 import android.content.Intent;
 import android.content.IntentFilter;
 import android.content.res.Resources;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
+import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.Rect;
-import android.graphics.Typeface;
+import android.graphics.RectF;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Message;
 import android.support.wearable.watchface.CanvasWatchFaceService;
 import android.support.wearable.watchface.WatchFaceService;
 import android.support.wearable.watchface.WatchFaceStyle;
-import android.text.format.Time;
 import android.util.Log;
 import android.view.SurfaceHolder;
 import android.view.WindowInsets;
 
+import com.chriscartland.watchface.shared.AmbientRenderer;
+import com.chriscartland.watchface.shared.AndroidFaceCanvas;
+import com.chriscartland.watchface.shared.AndroidTraceBackend;
+import com.chriscartland.watchface.shared.FacePalette;
+import com.chriscartland.watchface.shared.FaceTime;
+import com.chriscartland.watchface.shared.FrameBudgetGovernor;
+import com.chriscartland.watchface.shared.FrameTrace;
+import com.chriscartland.watchface.shared.UTCFaceRenderer;
+import com.chriscartland.watchface.shared.WatchFaceConfig;
+import com.google.android.gms.common.ConnectionResult;
+import com.google.android.gms.common.api.GoogleApiClient;
+import com.google.android.gms.wearable.DataApi;
+import com.google.android.gms.wearable.DataEvent;
+import com.google.android.gms.wearable.DataEventBuffer;
+import com.google.android.gms.wearable.DataItem;
+import com.google.android.gms.wearable.DataMap;
+import com.google.android.gms.wearable.DataMapItem;
+import com.google.android.gms.wearable.Wearable;
+
 import java.util.TimeZone;
 
 /**
  * Watch face with an analog representation of UTC time and the local timezone.
- * On devices with low-bit ambient mode, the hands are drawn without anti-aliasing in ambient
- * mode. The watch face is drawn with less contrast in mute mode.
- *
+ * In ambient mode the {@link AmbientRenderer} draws only the hands, the local and GMT hours and
+ * the UTC label; on devices with low-bit ambient mode it also quantizes the colors to one bit per
+ * channel and draws without anti-aliasing. The watch face is drawn with less contrast in mute
+ * mode.
  */
 public class UTCWatchFaceService extends CanvasWatchFaceService {
     private static final String TAG = "UTCWatchFaceService";
 
-    /**
-     * Update rate in milliseconds for interactive mode. We update once a second to advance the
-     * second hand.
-     */
-    private static final long INTERACTIVE_UPDATE_RATE_MS = 50; // 20 fps
-
-    private static final Typeface BOLD_TYPEFACE =
-            Typeface.create(Typeface.SANS_SERIF, Typeface.BOLD);
-    private static final Typeface NORMAL_TYPEFACE =
-            Typeface.create(Typeface.SANS_SERIF, Typeface.NORMAL);
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        if (BuildConfig.DEBUG) {
+            FrameTrace.setBackend(new AndroidTraceBackend());
+        }
+    }
 
     @Override
     public Engine onCreateEngine() {
         return new Engine();
     }
 
-    private class Engine extends CanvasWatchFaceService.Engine {
+    private class Engine extends CanvasWatchFaceService.Engine implements DataApi.DataListener,
+            GoogleApiClient.ConnectionCallbacks, GoogleApiClient.OnConnectionFailedListener {
 
         private static final int MSG_UPDATE_TIME = 0;
 
         private static final int ANIMATION_PIXELS_PER_SECOND = 200;
 
-        private Paint mHourPaint;
-        private Paint mHandPaint;
-        private Paint mUTCLabelPaint;
-        private Paint mCurrentHourPaint;
+        private final UTCFaceRenderer mRenderer = new UTCFaceRenderer();
+        private final AmbientRenderer mAmbientRenderer = new AmbientRenderer();
+        private final AndroidFaceCanvas mFaceCanvas = new AndroidFaceCanvas();
+        private final FacePalette mPalette = new FacePalette();
+
+        /** Picks the interactive quality tier from how long recent frames took to draw. */
+        private final FrameBudgetGovernor mGovernor = new FrameBudgetGovernor();
+
+        /**
+         * The spiral of hour numerals at the full height of the screen, drawn in place of the
+         * numerals in {@link FrameBudgetGovernor.Tier#STATIC_NUMERALS}. It is redrawn only when
+         * the hour, the GMT hour or the look of the numerals change.
+         */
+        private Bitmap mNumeralLayer;
+        private final AndroidFaceCanvas mNumeralLayerCanvas = new AndroidFaceCanvas();
+        private boolean mNumeralLayerValid;
+        private int mNumeralLayerHour;
+        private int mNumeralLayerGmtHour;
+        private final Paint mNumeralLayerPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+        private final RectF mNumeralLayerBounds = new RectF();
+
+        /**
+         * Applies the config {@link DataItem} to {@link #mPalette}, skipping colors that haven't
+         * changed.
+         */
+        private final ConfigApplier mConfigApplier = new ConfigApplier(mPalette);
 
         private boolean mMute;
-        private Time mTime;
+        private final FaceTime mTime = new FaceTime();
 
         private float mWatchHeight;
         private long mLastUpdate = -1;
@@ -89,16 +130,18 @@ public class UTCWatchFaceService extends CanvasWatchFaceService {
             public void handleMessage(Message message) {
                 switch (message.what) {
                     case MSG_UPDATE_TIME:
+                        FrameTrace.beginSection(FrameTrace.UPDATE_TIMER);
                         if (Log.isLoggable(TAG, Log.VERBOSE)) {
                             Log.v(TAG, "updating time");
                         }
                         invalidate();
                         if (shouldTimerBeRunning()) {
+                            long updateRateMs = mGovernor.getTier().getUpdateRateMs();
                             long timeMs = System.currentTimeMillis();
-                            long delayMs = INTERACTIVE_UPDATE_RATE_MS
-                                    - (timeMs % INTERACTIVE_UPDATE_RATE_MS);
+                            long delayMs = updateRateMs - (timeMs % updateRateMs);
                             mUpdateTimeHandler.sendEmptyMessageDelayed(MSG_UPDATE_TIME, delayMs);
                         }
+                        FrameTrace.endSection();
                         break;
                 }
             }
@@ -107,19 +150,28 @@ public class UTCWatchFaceService extends CanvasWatchFaceService {
         final BroadcastReceiver mTimeZoneReceiver = new BroadcastReceiver() {
             @Override
             public void onReceive(Context context, Intent intent) {
-                mTime.clear(intent.getStringExtra("time-zone"));
-                mTime.setToNow();
+                mTime.setTimeZone(TimeZone.getTimeZone(intent.getStringExtra("time-zone")));
             }
         };
         boolean mRegisteredTimeZoneReceiver = false;
 
+        GoogleApiClient mGoogleApiClient = new GoogleApiClient.Builder(UTCWatchFaceService.this)
+                .addConnectionCallbacks(this)
+                .addOnConnectionFailedListener(this)
+                .addApi(Wearable.API)
+                .build();
+
         /**
-         * Whether the display supports fewer bits for each color in ambient mode. When true, we
-         * disable anti-aliasing in ambient mode.
+         * Whether the display supports fewer bits for each color in ambient mode. When true, the
+         * {@link AmbientRenderer} quantizes its colors and disables anti-aliasing.
          */
         boolean mLowBitAmbient;
 
         private boolean mIsRound;
+        private float mHourTextSize;
+        private float mBigHourTextSize;
+        private int mSurfaceWidth;
+        private int mSurfaceHeight;
 
         @Override
         public void onCreate(SurfaceHolder holder) {
@@ -133,51 +185,20 @@ public class UTCWatchFaceService extends CanvasWatchFaceService {
                     .setBackgroundVisibility(WatchFaceStyle.BACKGROUND_VISIBILITY_INTERRUPTIVE)
                     .setShowSystemUiTime(false)
                     .build());
-
-            Resources resources = UTCWatchFaceService.this.getResources();
-
-            mHourPaint = createTextPaint(resources.getColor(R.color.hour_default), BOLD_TYPEFACE);
-            mHourPaint.setTextAlign(Paint.Align.CENTER);
-
-            mHandPaint = new Paint();
-            mHandPaint.setStyle(Paint.Style.STROKE);
-            mHandPaint.setStrokeCap(Paint.Cap.ROUND);
-            mHandPaint.setColor(resources.getColor(R.color.hand_color));
-            mHandPaint.setStrokeWidth(4.f);
-
-            mUTCLabelPaint = createTextPaint(resources.getColor(R.color.utc_label));
-
-            mCurrentHourPaint = new Paint();
-            mCurrentHourPaint.setColor(resources.getColor(R.color.current_hour));
-            mCurrentHourPaint.setStrokeWidth(3f);
-            mCurrentHourPaint.setStyle(Paint.Style.STROKE);
-            mCurrentHourPaint.setStrokeCap(Paint.Cap.ROUND);
-
-            mTime = new Time();
         }
 
         @Override
         public void onDestroy() {
             mUpdateTimeHandler.removeMessages(MSG_UPDATE_TIME);
+            releaseNumeralLayer();
             super.onDestroy();
         }
 
-        private Paint createTextPaint(int defaultInteractiveColor) {
-            return createTextPaint(defaultInteractiveColor, NORMAL_TYPEFACE);
-        }
-
-        private Paint createTextPaint(int defaultInteractiveColor, Typeface typeface) {
-            Paint paint = new Paint();
-            paint.setColor(defaultInteractiveColor);
-            paint.setTypeface(typeface);
-            paint.setAntiAlias(true);
-            return paint;
-        }
-
         @Override
         public void onPropertiesChanged(Bundle properties) {
             super.onPropertiesChanged(properties);
             mLowBitAmbient = properties.getBoolean(PROPERTY_LOW_BIT_AMBIENT, false);
+            mAmbientRenderer.setLowBitAmbient(mLowBitAmbient);
             if (Log.isLoggable(TAG, Log.DEBUG)) {
                 Log.d(TAG, "onPropertiesChanged: low-bit ambient = " + mLowBitAmbient);
             }
@@ -198,13 +219,8 @@ public class UTCWatchFaceService extends CanvasWatchFaceService {
             if (Log.isLoggable(TAG, Log.DEBUG)) {
                 Log.d(TAG, "onAmbientModeChanged: " + inAmbientMode);
             }
-            if (mLowBitAmbient) {
-                boolean antiAlias = !inAmbientMode;
-                mHourPaint.setAntiAlias(antiAlias);
-                mHandPaint.setAntiAlias(antiAlias);
-                mCurrentHourPaint.setAntiAlias(antiAlias);
-                mUTCLabelPaint.setAntiAlias(antiAlias);
-            }
+            // Frame times from before ambient mode don't reflect the current state of the device.
+            mGovernor.clearFrames();
             invalidate();
 
             // Whether the timer should be running depends on whether we're in ambient mode (as well
@@ -218,111 +234,118 @@ public class UTCWatchFaceService extends CanvasWatchFaceService {
             boolean inMuteMode = (interruptionFilter == WatchFaceService.INTERRUPTION_FILTER_NONE);
             if (mMute != inMuteMode) {
                 mMute = inMuteMode;
-                mHourPaint.setAlpha(inMuteMode ? 100 : 255);
-                mHandPaint.setAlpha(inMuteMode ? 100 : 255);
-                mCurrentHourPaint.setAlpha(inMuteMode ? 80 : 255);
-                mUTCLabelPaint.setAlpha(inMuteMode ? 80 : 180);
+                mRenderer.setMute(inMuteMode);
+                mAmbientRenderer.setMute(inMuteMode);
+                mNumeralLayerValid = false;
                 invalidate();
             }
         }
 
         @Override
         public void onDraw(Canvas canvas, Rect bounds) {
+            long drawStartNanos = System.nanoTime();
+            FrameTrace.beginSection(FrameTrace.DRAW);
+
+            FrameTrace.beginSection(FrameTrace.DRAW_TIME);
             long now = System.currentTimeMillis();
-            mTime.set(now);
+            mTime.setLocal(now);
+            FrameTrace.endSection();
+
+            FrameTrace.beginSection(FrameTrace.DRAW_GMT);
+            mTime.updateGmt();
+            FrameTrace.endSection();
 
             int width = bounds.width();
             int boundsHeight = bounds.height();
 
-            drawBackground(canvas, width, boundsHeight);
-
+            FrameTrace.beginSection(FrameTrace.DRAW_HEIGHT);
             int desiredHeight = calculateDesiredHeight(boundsHeight);
 
             updateWatchHeight(desiredHeight, now);
+            FrameTrace.endSection();
 
-            // Find the center. Ignore the window insets so that, on round watches with a
-            // "chin", the watch face is centered on the entire screen, not just the usable
-            // portion.
-            float centerX = width / 2f;
-            float centerY = mWatchHeight / 2f;
-
-            float radius = Math.min(centerX, centerY);
-
-            // Draw the minutes.
-            drawMinuteLine(canvas, mTime.minute, mCurrentHourPaint, radius, centerX, centerY,
-                    mHourPaint);
-
-            float hourFloat = (float) mTime.hour + (float) mTime.minute / 60f;
-            drawHourLine(canvas, hourFloat, mHandPaint, radius, centerX, centerY,
-                    mHourPaint);
-
-            // Calculate GMT hour.
-            String zone = mTime.timezone;
-            String gmtZone = "GMT";
-            mTime.switchTimezone(gmtZone);
-            int gmtHour = mTime.hour;
-            mTime.switchTimezone(zone);
-
-            // Draw the hours in a spiral.
-            for (int hour = 0; hour < 24; hour++) {
-                if (hour == mTime.hour || hour == gmtHour) {
-                    float outerTextBuffer = getTextHeight(Integer.toString(hour), mHourPaint);
-                    float hourRadius = calculateHourRadius(radius, hour, outerTextBuffer);
-
-                    // Bigger.
-                    float size = mHourPaint.getTextSize();
-                    float bigHourTextSize = getResources().getDimension(mIsRound
-                            ? R.dimen.utc_big_hour_text_size_round : R.dimen.utc_big_hour_text_size);
-                    mHourPaint.setTextSize(bigHourTextSize);
-
-                    // Color.
-                    if (hour == mTime.hour) {
-                        int color = mHourPaint.getColor();
-                        mHourPaint.setColor(getResources().getColor(R.color.current_hour));
-                        drawHour(canvas, hour, mHourPaint, hourRadius, centerX, centerY);
-                        mHourPaint.setColor(color);
-                    } else if (hour == gmtHour) {
-                        int color = mHourPaint.getColor();
-                        mHourPaint.setColor(getResources().getColor(R.color.gmt_hour));
-                        drawHour(canvas, hour, mHourPaint, hourRadius, centerX, centerY);
-                        mHourPaint.setColor(color);
-                    } else {
-                        drawHour(canvas, hour, mHourPaint, hourRadius, centerX, centerY);
-                    }
-                    mHourPaint.setTextSize(size);
-                } else {
-                    float textHeight = getTextHeight(Integer.toString(hour), mHourPaint);
-                    float hourRadius = calculateHourRadius(radius, hour, textHeight);
-                    drawHour(canvas, hour, mHourPaint, hourRadius, centerX, centerY);
-                }
+            mFaceCanvas.setCanvas(canvas);
+            if (isInAmbientMode()) {
+                mAmbientRenderer.draw(mFaceCanvas, mTime, width, (int) mWatchHeight);
+                FrameTrace.endSection();
+                return;
             }
 
-            // Draw the UTC diff.
-            TimeZone tz = TimeZone.getTimeZone(mTime.timezone);
-            long milliDiff = tz.getOffset(mTime.toMillis(false));
-            float hourDiff = milliDiff / 1000f / 60f / 60f;
+            // The face is centered on the whole width and the animated height. Ignore the window
+            // insets so that, on round watches with a "chin", the watch face is centered on the
+            // entire screen, not just the usable portion.
+            mRenderer.drawBackground(mFaceCanvas);
+            mRenderer.drawHands(mFaceCanvas, mTime, width, mWatchHeight);
+            if (mGovernor.getTier().isStaticNumerals()) {
+                drawNumeralLayer(canvas, width, boundsHeight);
+            } else {
+                mRenderer.drawSpiral(mFaceCanvas, mTime, width, mWatchHeight);
+            }
+            mRenderer.drawUtcLabel(mFaceCanvas, mTime, width, mWatchHeight);
 
-            String hourDiffString = formatUTCDiff(hourDiff);
-            float hourDiffWidth = mUTCLabelPaint.measureText(hourDiffString);
+            FrameTrace.endSection();
 
-            if (mIsRound) {
-                mUTCLabelPaint.setTextAlign(Paint.Align.CENTER);
-                canvas.drawText(hourDiffString, centerX, centerY, mUTCLabelPaint);
-            } else {
-                float x = bounds.right - (hourDiffWidth) - 20;
-                canvas.drawText(hourDiffString, x, 30, mUTCLabelPaint);
+            if (mGovernor.onFrameDrawn(System.nanoTime() - drawStartNanos)) {
+                applyQualityTier();
             }
         }
 
-        private void drawBackground(Canvas canvas, int width, int height) {
-            canvas.drawColor(getResources().getColor(R.color.background));
+        /**
+         * Applies the tier chosen by {@link #mGovernor}. The new update rate takes effect when
+         * the timer next schedules itself.
+         */
+        private void applyQualityTier() {
+            FrameBudgetGovernor.Tier tier = mGovernor.getTier();
+            if (Log.isLoggable(TAG, Log.DEBUG)) {
+                Log.d(TAG, "applyQualityTier: " + tier);
+            }
+            mRenderer.setAntiAlias(tier.isAntiAlias());
+            mNumeralLayerValid = false;
+            if (!tier.isStaticNumerals()) {
+                releaseNumeralLayer();
+            }
         }
 
-        private void drawTextCenterVertical(Canvas canvas, String text, float x, float y, Paint paint) {
-            Rect bounds = new Rect();
-            paint.getTextBounds(text, 0, text.length(), bounds);
-            float startY = y + bounds.height() / 2;
-            canvas.drawText(text, x, startY, paint);
+        /**
+         * Draws the spiral from {@link #mNumeralLayer}, scaled to the current watch height,
+         * redrawing the layer first if it is out of date.
+         */
+        private void drawNumeralLayer(Canvas canvas, int width, int height) {
+            if (mNumeralLayer == null || mNumeralLayer.getWidth() != width
+                    || mNumeralLayer.getHeight() != height) {
+                releaseNumeralLayer();
+                mNumeralLayer = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+                mNumeralLayerCanvas.setCanvas(new Canvas(mNumeralLayer));
+            }
+            if (!mNumeralLayerValid || mNumeralLayerHour != mTime.getHour()
+                    || mNumeralLayerGmtHour != mTime.getGmtHour()) {
+                mNumeralLayer.eraseColor(Color.TRANSPARENT);
+                mRenderer.drawSpiral(mNumeralLayerCanvas, mTime, width, height);
+                mNumeralLayerHour = mTime.getHour();
+                mNumeralLayerGmtHour = mTime.getGmtHour();
+                mNumeralLayerValid = true;
+            }
+
+            FrameTrace.beginSection(FrameTrace.DRAW_SPIRAL);
+            // While a card peeks, shrink the layer around the center instead of redrawing it.
+            float layerCenterX = width / 2f;
+            float layerCenterY = height / 2f;
+            float centerY = mWatchHeight / 2f;
+            float scale = Math.min(layerCenterX, centerY) / Math.min(layerCenterX, layerCenterY);
+            mNumeralLayerBounds.set(layerCenterX - layerCenterX * scale,
+                    centerY - layerCenterY * scale,
+                    layerCenterX + layerCenterX * scale,
+                    centerY + layerCenterY * scale);
+            canvas.drawBitmap(mNumeralLayer, null, mNumeralLayerBounds, mNumeralLayerPaint);
+            FrameTrace.endSection();
+        }
+
+        private void releaseNumeralLayer() {
+            if (mNumeralLayer != null) {
+                mNumeralLayer.recycle();
+                mNumeralLayer = null;
+            }
+            mNumeralLayerValid = false;
         }
 
         private int calculateDesiredHeight(int max) {
@@ -366,104 +389,6 @@ public class UTCWatchFaceService extends CanvasWatchFaceService {
             mLastUpdate = now;
         }
 
-        private void drawMinuteLine(Canvas canvas, float minute, Paint paint, float radius,
-                                    float centerX, float centerY, Paint textPaint) {
-            String text = "24";
-
-            float textHeight = getTextHeight(text, textPaint);
-            float rot = calculateMinuteRot(minute);
-            float minuteRadius = calculateMinuteArmRadius(radius, textHeight);
-            float offsetX = calculateXComponent(rot, minuteRadius);
-            float offsetY = calculateYComponent(rot, minuteRadius);
-
-            float endX = centerX + offsetX;
-            float endY = centerY + offsetY;
-            canvas.drawLine(centerX, centerY, endX, endY, paint);
-        }
-
-        private void drawHourLine(Canvas canvas, float hour, Paint paint, float radius,
-                                    float centerX, float centerY, Paint textPaint) {
-            String text = "24";
-
-            float textHeight = getTextHeight(text, textPaint);
-            float rot = calculateHourRot(hour);
-            float minuteRadius = calculateHourArmRadius(radius, textHeight);
-            float offsetX = calculateXComponent(rot, minuteRadius);
-            float offsetY = calculateYComponent(rot, minuteRadius);
-
-            float endX = centerX + offsetX;
-            float endY = centerY + offsetY;
-            canvas.drawLine(centerX, centerY, endX, endY, paint);
-        }
-
-        private void drawHour(Canvas canvas, float hour, Paint paint, float hourRadius,
-                              float centerX, float centerY) {
-            String text = Integer.toString((int)hour);
-
-            float rot = calculateHourRot(hour);
-            float offsetX = calculateXComponent(rot, hourRadius);
-            float offsetY = calculateYComponent(rot, hourRadius);
-
-            float textCenterX = centerX + offsetX;
-            float textCenterY = centerY + offsetY;
-            drawTextCenterVertical(canvas, text, textCenterX, textCenterY, paint);
-        }
-
-        private float calculateXComponent(float rot, float radius) {
-            return (float) Math.sin(rot) * radius;
-        }
-
-        private float calculateYComponent(float rot, float radius) {
-            return (float) -Math.cos(rot) * radius;
-        }
-
-        private float getTextHeight(String t, Paint paint) {
-            Rect textBounds = new Rect();
-            paint.getTextBounds(t, 0, 1, textBounds);
-            return (float)textBounds.height();
-        }
-
-        private float calculateHourRot(float hour) {
-            return (float) (hour * Math.PI * 2 / 12);
-        }
-
-        private float calculateMinuteRot(float min) {
-            return (float) (min * Math.PI * 2 / 60);
-        }
-
-        private float calculateHourRadius(float radius, float hour, float textHeight) {
-            float inset = (hour > 11) ? (textHeight * 3f) : 0;
-            return radius - 10 - textHeight - inset;
-        }
-
-        private float calculateMinuteArmRadius(float radius, float textHeight) {
-            float inset = textHeight * 5f;
-            return radius - 10 - textHeight - inset;
-        }
-
-        private float calculateHourArmRadius(float radius, float textHeight) {
-            return calculateMinuteArmRadius(radius, textHeight) / 2;
-        }
-
-        private String formatUTCDiff(float hour) {
-            int truncateAfter = (int) (hour * 2);
-            int truncateBefore = ((int) hour) * 2;
-
-            if (truncateAfter == truncateBefore) {
-                if (hour >= 0) {
-                    return "UTC+" + Math.abs((int)hour);
-                } else {
-                    return "UTC-" + Math.abs((int)hour);
-                }
-            } else {
-                if (hour >= 0) { // must check float, not int
-                    return "UTC+" + String.format("%d.5", Math.abs((int)hour));
-                } else {
-                    return "UTC-" + String.format("%d.5", Math.abs((int)hour));
-                }
-            }
-        }
-
         @Override
         public void onVisibilityChanged(boolean visible) {
             super.onVisibilityChanged(visible);
@@ -472,13 +397,20 @@ public class UTCWatchFaceService extends CanvasWatchFaceService {
             }
 
             if (visible) {
+                mGoogleApiClient.connect();
+                mGovernor.clearFrames();
+
                 registerReceiver();
 
                 // Update time zone in case it changed while we weren't visible.
-                mTime.clear(TimeZone.getDefault().getID());
-                mTime.setToNow();
+                mTime.setTimeZone(TimeZone.getDefault());
             } else {
                 unregisterReceiver();
+
+                if (mGoogleApiClient != null && mGoogleApiClient.isConnected()) {
+                    Wearable.DataApi.removeListener(mGoogleApiClient, this);
+                    mGoogleApiClient.disconnect();
+                }
             }
 
             // Whether the timer should be running depends on whether we're visible (as well as
@@ -516,8 +448,42 @@ public class UTCWatchFaceService extends CanvasWatchFaceService {
             float hourTextSize = resources.getDimension(mIsRound
                     ? R.dimen.utc_hour_text_size_round : R.dimen.utc_hour_text_size);
 
-            mHourPaint.setTextSize(hourTextSize);
-            mUTCLabelPaint.setTextSize(hourTextSize);
+            float bigHourTextSize = resources.getDimension(mIsRound
+                    ? R.dimen.utc_big_hour_text_size_round : R.dimen.utc_big_hour_text_size);
+
+            mHourTextSize = hourTextSize;
+            mBigHourTextSize = bigHourTextSize;
+            mRenderer.setTextSizes(mIsRound, hourTextSize, bigHourTextSize);
+            mAmbientRenderer.setTextSizes(mIsRound, hourTextSize, bigHourTextSize);
+            mNumeralLayerValid = false;
+            publishScreenConfig();
+        }
+
+        @Override
+        public void onSurfaceChanged(SurfaceHolder holder, int format, int width, int height) {
+            super.onSurfaceChanged(holder, format, width, height);
+            mSurfaceWidth = width;
+            mSurfaceHeight = height;
+            publishScreenConfig();
+        }
+
+        /**
+         * Writes the screen shape and size and the text sizes to the config {@link DataItem}, so
+         * that the companion can preview the face as this watch draws it. Nothing is written if
+         * they haven't changed.
+         */
+        private void publishScreenConfig() {
+            if (mSurfaceWidth == 0 || mHourTextSize == 0) {
+                return;
+            }
+            DataMap screenConfig = new DataMap();
+            screenConfig.putBoolean(WatchFaceConfig.KEY_SCREEN_ROUND, mIsRound);
+            screenConfig.putInt(WatchFaceConfig.KEY_SCREEN_WIDTH, mSurfaceWidth);
+            screenConfig.putInt(WatchFaceConfig.KEY_SCREEN_HEIGHT, mSurfaceHeight);
+            screenConfig.putFloat(WatchFaceConfig.KEY_HOUR_TEXT_SIZE, mHourTextSize);
+            screenConfig.putFloat(WatchFaceConfig.KEY_BIG_HOUR_TEXT_SIZE, mBigHourTextSize);
+            UTCWatchFaceUtil.overwriteKeysInConfigDataMap(UTCWatchFaceService.this,
+                    screenConfig);
         }
 
         @Override
@@ -555,5 +521,80 @@ public class UTCWatchFaceService extends CanvasWatchFaceService {
             return isVisible() && !isInAmbientMode();
         }
 
+        private void updateConfigDataItemAndUiOnStartup() {
+            UTCWatchFaceUtil.fetchConfigDataMap(mGoogleApiClient,
+                    new UTCWatchFaceUtil.FetchConfigDataMapCallback() {
+                        @Override
+                        public void onConfigDataMapFetched(DataMap startupConfig) {
+                            updateUiForConfigDataMap(startupConfig);
+                        }
+                    }
+            );
+        }
+
+        @Override // DataApi.DataListener
+        public void onDataChanged(DataEventBuffer dataEvents) {
+            FrameTrace.beginSection(FrameTrace.RECEIVE_CONFIG);
+            try {
+                for (DataEvent dataEvent : dataEvents) {
+                    if (dataEvent.getType() != DataEvent.TYPE_CHANGED) {
+                        continue;
+                    }
+
+                    DataItem dataItem = dataEvent.getDataItem();
+                    if (!dataItem.getUri().getPath().equals(
+                            WatchFaceConfig.PATH_WITH_FEATURE)) {
+                        continue;
+                    }
+
+                    DataMapItem dataMapItem = DataMapItem.fromDataItem(dataItem);
+                    DataMap config = dataMapItem.getDataMap();
+                    if (Log.isLoggable(TAG, Log.DEBUG)) {
+                        Log.d(TAG, "Config DataItem updated:" + config);
+                    }
+                    updateUiForConfigDataMap(config);
+                }
+            } finally {
+                dataEvents.close();
+                FrameTrace.endSection();
+            }
+        }
+
+        /**
+         * Applies the color keys of {@code config} that changed to the palette, and redraws once
+         * if anything changed.
+         */
+        private void updateUiForConfigDataMap(DataMap config) {
+            if (mConfigApplier.apply(config)) {
+                mRenderer.setPalette(mPalette);
+                mAmbientRenderer.setPalette(mPalette);
+                mNumeralLayerValid = false;
+                invalidate();
+            }
+        }
+
+        @Override  // GoogleApiClient.ConnectionCallbacks
+        public void onConnected(Bundle connectionHint) {
+            if (Log.isLoggable(TAG, Log.DEBUG)) {
+                Log.d(TAG, "onConnected: " + connectionHint);
+            }
+            Wearable.DataApi.addListener(mGoogleApiClient, Engine.this);
+            updateConfigDataItemAndUiOnStartup();
+        }
+
+        @Override  // GoogleApiClient.ConnectionCallbacks
+        public void onConnectionSuspended(int cause) {
+            if (Log.isLoggable(TAG, Log.DEBUG)) {
+                Log.d(TAG, "onConnectionSuspended: " + cause);
+            }
+        }
+
+        @Override  // GoogleApiClient.OnConnectionFailedListener
+        public void onConnectionFailed(ConnectionResult result) {
+            if (Log.isLoggable(TAG, Log.DEBUG)) {
+                Log.d(TAG, "onConnectionFailed: " + result);
+            }
+        }
+
     }
 }
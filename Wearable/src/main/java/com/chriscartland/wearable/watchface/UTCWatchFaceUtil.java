@@ -0,0 +1,128 @@
+/*
+ * Copyright 2015 Chris Cartland. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.chriscartland.wearable.watchface;
+
+import android.content.Context;
+import android.net.Uri;
+
+import com.chriscartland.watchface.shared.WatchFaceConfig;
+import com.google.android.gms.common.api.GoogleApiClient;
+import com.google.android.gms.common.api.ResultCallback;
+import com.google.android.gms.wearable.DataApi;
+import com.google.android.gms.wearable.DataItem;
+import com.google.android.gms.wearable.DataMap;
+import com.google.android.gms.wearable.DataMapItem;
+import com.google.android.gms.wearable.NodeApi;
+import com.google.android.gms.wearable.Wearable;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Helpers for the {@link UTCWatchFaceService} config, which is stored in a {@link DataItem} at
+ * {@link WatchFaceConfig#PATH_WITH_FEATURE} on the local node.
+ * <p>
+ * The config only holds the colors the user has changed. Colors that are missing leave the watch
+ * face's defaults in place. The watch also stores its screen shape and size there for the
+ * companion.
+ */
+public final class UTCWatchFaceUtil {
+    private static ConfigDataPublisher sConfigPublisher;
+
+    /**
+     * Callback interface to perform an action with the current config {@link DataMap} for
+     * {@link UTCWatchFaceService}.
+     */
+    public interface FetchConfigDataMapCallback {
+        /**
+         * Callback invoked with the current config {@link DataMap} for
+         * {@link UTCWatchFaceService}.
+         */
+        void onConfigDataMapFetched(DataMap config);
+    }
+
+    /**
+     * Asynchronously fetches the current config {@link DataMap} for {@link UTCWatchFaceService}
+     * and passes it to the given callback. If the config doesn't exist yet, the callback receives
+     * an empty {@link DataMap}.
+     */
+    public static void fetchConfigDataMap(final GoogleApiClient client,
+            final FetchConfigDataMapCallback callback) {
+        Wearable.NodeApi.getLocalNode(client).setResultCallback(
+                new ResultCallback<NodeApi.GetLocalNodeResult>() {
+                    @Override
+                    public void onResult(NodeApi.GetLocalNodeResult getLocalNodeResult) {
+                        String localNode = getLocalNodeResult.getNode().getId();
+                        Uri uri = new Uri.Builder()
+                                .scheme("wear")
+                                .path(WatchFaceConfig.PATH_WITH_FEATURE)
+                                .authority(localNode)
+                                .build();
+                        Wearable.DataApi.getDataItem(client, uri)
+                                .setResultCallback(new DataItemResultCallback(callback));
+                    }
+                }
+        );
+    }
+
+    /**
+     * Overwrites (or sets, if not present) the keys in the current config {@link DataItem} with
+     * the ones appearing in the given {@link DataMap}. If the config DataItem doesn't exist, it's
+     * created. Keys whose value is unchanged are not written, so a redundant message does not
+     * wake up the running engines.
+     * <p>
+     * All changes in this process go through one {@link ConfigDataPublisher}, so that changes
+     * made back to back are merged in order and none of them is lost.
+     */
+    public static void overwriteKeysInConfigDataMap(Context context,
+            DataMap configKeysToOverwrite) {
+        getConfigPublisher(context).overwriteKeys(configKeysToOverwrite);
+    }
+
+    private static synchronized ConfigDataPublisher getConfigPublisher(Context context) {
+        if (sConfigPublisher == null) {
+            sConfigPublisher = new ConfigDataPublisher(
+                    new DataItemConfigStore(context.getApplicationContext()),
+                    Executors.newSingleThreadExecutor());
+        }
+        return sConfigPublisher;
+    }
+
+    private static class DataItemResultCallback implements ResultCallback<DataApi.DataItemResult> {
+
+        private final FetchConfigDataMapCallback mCallback;
+
+        public DataItemResultCallback(FetchConfigDataMapCallback callback) {
+            mCallback = callback;
+        }
+
+        @Override
+        public void onResult(DataApi.DataItemResult dataItemResult) {
+            if (dataItemResult.getStatus().isSuccess()) {
+                if (dataItemResult.getDataItem() != null) {
+                    DataItem configDataItem = dataItemResult.getDataItem();
+                    DataMapItem dataMapItem = DataMapItem.fromDataItem(configDataItem);
+                    DataMap config = dataMapItem.getDataMap();
+                    mCallback.onConfigDataMapFetched(config);
+                } else {
+                    mCallback.onConfigDataMapFetched(new DataMap());
+                }
+            }
+        }
+    }
+
+    private UTCWatchFaceUtil() { }
+}
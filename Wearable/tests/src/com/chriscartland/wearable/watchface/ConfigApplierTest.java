@@ -0,0 +1,103 @@
+/*
+ * Copyright 2015 Chris Cartland. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.chriscartland.wearable.watchface;
+
+import com.chriscartland.watchface.shared.FacePalette;
+import com.chriscartland.watchface.shared.WatchFaceConfig;
+import com.google.android.gms.wearable.DataMap;
+
+import junit.framework.TestCase;
+
+public class ConfigApplierTest extends TestCase {
+
+    private FacePalette mPalette;
+    private ConfigApplier mApplier;
+
+    @Override
+    protected void setUp() {
+        mPalette = new FacePalette();
+        mApplier = new ConfigApplier(mPalette);
+    }
+
+    public void testAppliesColorKeys() {
+        DataMap config = new DataMap();
+        config.putInt(WatchFaceConfig.KEY_BACKGROUND_COLOR, 0xFF000080);
+        config.putInt(WatchFaceConfig.KEY_MINUTES_COLOR, 0xFF00FF00);
+
+        assertTrue(mApplier.apply(config));
+
+        assertEquals(0xFF000080, mPalette.getBackground());
+        assertEquals(0xFF00FF00, mPalette.getMinuteHand());
+        assertEquals(FacePalette.DEFAULT_HOURS, mPalette.getHours());
+    }
+
+    public void testUnchangedConfigIsSkipped() {
+        DataMap config = map(WatchFaceConfig.KEY_HOURS_COLOR, 0xFF00FF00);
+        assertTrue(mApplier.apply(config));
+
+        assertFalse(mApplier.apply(config));
+        assertFalse(mApplier.apply(map(WatchFaceConfig.KEY_HOURS_COLOR, 0xFF00FF00)));
+    }
+
+    public void testOnlyChangedKeysAreApplied() {
+        DataMap config = new DataMap();
+        config.putInt(WatchFaceConfig.KEY_HOURS_COLOR, 0xFF00FF00);
+        config.putInt(WatchFaceConfig.KEY_SECONDS_COLOR, 0xFF0000FF);
+        mApplier.apply(config);
+        // Stands in for a key changed elsewhere, which the next config must not revert.
+        mPalette.setColorForKey(WatchFaceConfig.KEY_SECONDS_COLOR, 0xFFFFFF00);
+
+        config.putInt(WatchFaceConfig.KEY_HOURS_COLOR, 0xFFFF00FF);
+        assertTrue(mApplier.apply(config));
+
+        assertEquals(0xFFFF00FF, mPalette.getHours());
+        assertEquals(0xFFFFFF00, mPalette.getUtcLabel());
+    }
+
+    public void testSeveralChangedKeysNeedOneRedraw() {
+        DataMap config = new DataMap();
+        config.putInt(WatchFaceConfig.KEY_BACKGROUND_COLOR, 0xFF000080);
+        config.putInt(WatchFaceConfig.KEY_HOURS_COLOR, 0xFF00FF00);
+        config.putInt(WatchFaceConfig.KEY_MINUTES_COLOR, 0xFF0000FF);
+        config.putInt(WatchFaceConfig.KEY_SECONDS_COLOR, 0xFFFFFF00);
+
+        int redraws = 0;
+        for (int i = 0; i < 3; i++) {
+            if (mApplier.apply(config)) {
+                redraws++;
+            }
+        }
+
+        assertEquals(1, redraws);
+    }
+
+    public void testNonColorKeysAreIgnored() {
+        DataMap config = new DataMap();
+        config.putBoolean(WatchFaceConfig.KEY_SCREEN_ROUND, true);
+        config.putInt(WatchFaceConfig.KEY_SCREEN_WIDTH, 320);
+
+        assertFalse(mApplier.apply(config));
+
+        assertEquals(new FacePalette(), mPalette);
+    }
+
+    private static DataMap map(String key, int value) {
+        DataMap map = new DataMap();
+        map.putInt(key, value);
+        return map;
+    }
+}
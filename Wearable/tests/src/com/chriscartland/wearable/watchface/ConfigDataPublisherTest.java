@@ -0,0 +1,184 @@
+/*
+ * Copyright 2015 Chris Cartland. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.chriscartland.wearable.watchface;
+
+import com.google.android.gms.wearable.DataMap;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class ConfigDataPublisherTest extends TestCase {
+
+    /** Runs queued merges only when asked to. */
+    private static class QueueExecutor implements Executor {
+        final List<Runnable> mQueue = new ArrayList<Runnable>();
+
+        @Override
+        public void execute(Runnable command) {
+            mQueue.add(command);
+        }
+
+        void runAll() {
+            for (Runnable runnable : mQueue) {
+                runnable.run();
+            }
+            mQueue.clear();
+        }
+    }
+
+    private FakeConfigStore mStore;
+    private QueueExecutor mExecutor;
+    private ConfigDataPublisher mPublisher;
+
+    @Override
+    protected void setUp() {
+        mStore = new FakeConfigStore();
+        mExecutor = new QueueExecutor();
+        mPublisher = new ConfigDataPublisher(mStore, mExecutor);
+    }
+
+    public void testMergesKeysIntoStoredConfig() {
+        mStore.mStored.putInt("A", 1);
+
+        assertTrue(mPublisher.merge(map("B", 2)));
+
+        assertEquals(1, mStore.mSaves.size());
+        assertEquals(1, mStore.mStored.getInt("A"));
+        assertEquals(2, mStore.mStored.getInt("B"));
+    }
+
+    public void testCreatesMissingConfig() {
+        assertTrue(mPublisher.merge(map("A", 1)));
+
+        assertEquals(1, mStore.mStored.getInt("A"));
+    }
+
+    public void testUnchangedKeysAreNotStored() {
+        mStore.mStored.putInt("A", 1);
+
+        assertFalse(mPublisher.merge(map("A", 1)));
+
+        assertTrue(mStore.mSaves.isEmpty());
+    }
+
+    public void testBackToBackChangesAreAllKept() {
+        mPublisher.overwriteKeys(map("A", 1));
+        mPublisher.overwriteKeys(map("B", 2));
+        mPublisher.overwriteKeys(map("A", 3));
+        mExecutor.runAll();
+
+        assertEquals(1, mStore.mLoads);
+        assertEquals(3, mStore.mSaves.size());
+        assertEquals(3, mStore.mStored.getInt("A"));
+        assertEquals(2, mStore.mStored.getInt("B"));
+    }
+
+    public void testQueuedChangeIsACopy() {
+        DataMap keys = map("A", 1);
+        mPublisher.overwriteKeys(keys);
+        keys.putInt("A", 2);
+        mExecutor.runAll();
+
+        assertEquals(1, mStore.mStored.getInt("A"));
+    }
+
+    public void testFailedLoadIsRetried() {
+        mStore.mStored.putInt("A", 1);
+        mStore.mFailNextLoad = true;
+
+        assertFalse(mPublisher.merge(map("B", 2)));
+        assertTrue(mStore.mSaves.isEmpty());
+
+        assertTrue(mPublisher.merge(map("B", 2)));
+        assertEquals(2, mStore.mLoads);
+        assertEquals(1, mStore.mStored.getInt("A"));
+        assertEquals(2, mStore.mStored.getInt("B"));
+    }
+
+    public void testFailedSaveIsRetried() {
+        mStore.mFailNextSave = true;
+
+        assertFalse(mPublisher.merge(map("A", 1)));
+        assertFalse(mStore.mStored.containsKey("A"));
+
+        // The same change is stored again instead of being taken as already applied.
+        assertTrue(mPublisher.merge(map("A", 1)));
+        assertEquals(2, mStore.mLoads);
+        assertEquals(1, mStore.mStored.getInt("A"));
+    }
+
+    public void testConcurrentChangesAreMergedOnOneThread() throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        final ConfigDataPublisher publisher = new ConfigDataPublisher(mStore, executor);
+        final int writers = 8;
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(writers);
+        for (int i = 0; i < writers; i++) {
+            final String key = "KEY_" + i;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        publisher.overwriteKeys(map(key, 1));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+        start.countDown();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        for (int i = 0; i < writers; i++) {
+            assertEquals(1, mStore.mStored.getInt("KEY_" + i));
+        }
+        assertEquals(1, mStore.mLoads);
+        assertEquals(1, mStore.mThreads.size());
+    }
+
+    public void testHasChanges() {
+        DataMap config = map("A", 1);
+        config.putBoolean("ROUND", true);
+
+        assertFalse(ConfigDataPublisher.hasChanges(config, map("A", 1)));
+        assertFalse(ConfigDataPublisher.hasChanges(config, new DataMap()));
+        assertTrue(ConfigDataPublisher.hasChanges(config, map("A", 2)));
+        assertTrue(ConfigDataPublisher.hasChanges(config, map("B", 1)));
+
+        DataMap round = new DataMap();
+        round.putBoolean("ROUND", false);
+        assertTrue(ConfigDataPublisher.hasChanges(config, round));
+    }
+
+    private static DataMap map(String key, int value) {
+        DataMap map = new DataMap();
+        map.putInt(key, value);
+        return map;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2015 Chris Cartland. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.chriscartland.wearable.watchface;
+
+import com.google.android.gms.wearable.DataMap;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/** An in-memory stand-in for the config DataItem. */
+class FakeConfigStore implements ConfigDataPublisher.ConfigStore {
+    DataMap mStored = new DataMap();
+    int mLoads;
+    final List<DataMap> mSaves = new ArrayList<DataMap>();
+    final Set<Thread> mThreads = new HashSet<Thread>();
+    boolean mFailNextLoad;
+    boolean mFailNextSave;
+
+    @Override
+    public synchronized DataMap load() {
+        mThreads.add(Thread.currentThread());
+        mLoads++;
+        if (mFailNextLoad) {
+            mFailNextLoad = false;
+            return null;
+        }
+        DataMap copy = new DataMap();
+        copy.putAll(mStored);
+        return copy;
+    }
+
+    @Override
+    public synchronized boolean save(DataMap config) {
+        mThreads.add(Thread.currentThread());
+        if (mFailNextSave) {
+            mFailNextSave = false;
+            return false;
+        }
+        mStored = new DataMap();
+        mStored.putAll(config);
+        mSaves.add(mStored);
+        return true;
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2015 Chris Cartland. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.chriscartland.wearable.watchface;
+
+import com.chriscartland.watchface.shared.FacePalette;
+import com.chriscartland.watchface.shared.WatchFaceConfig;
+import com.google.android.gms.wearable.DataMap;
+import com.google.android.gms.wearable.MessageEvent;
+
+import junit.framework.TestCase;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Tests the receive path in process: a config message from the companion app is decoded, merged
+ * into a {@link FakeConfigStore} standing in for the config DataItem, and the stored config is
+ * applied the way a running engine applies it.
+ */
+public class UTCWatchFaceConfigListenerServiceTest extends TestCase {
+
+    /** A message as the MessageApi delivers it. */
+    private static class FakeMessageEvent implements MessageEvent {
+        private final String mPath;
+        private final byte[] mData;
+
+        FakeMessageEvent(String path, DataMap data) {
+            mPath = path;
+            mData = data.toByteArray();
+        }
+
+        @Override
+        public int getRequestId() {
+            return 1;
+        }
+
+        @Override
+        public String getPath() {
+            return mPath;
+        }
+
+        @Override
+        public byte[] getData() {
+            return mData;
+        }
+
+        @Override
+        public String getSourceNodeId() {
+            return "companion";
+        }
+    }
+
+    private static final Executor DIRECT_EXECUTOR = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    private FakeConfigStore mStore;
+    private ConfigDataPublisher mPublisher;
+    private FacePalette mPalette;
+    private ConfigApplier mApplier;
+
+    @Override
+    protected void setUp() {
+        mStore = new FakeConfigStore();
+        mPublisher = new ConfigDataPublisher(mStore, DIRECT_EXECUTOR);
+        mPalette = new FacePalette();
+        mApplier = new ConfigApplier(mPalette);
+    }
+
+    public void testRecognizesConfigMessages() {
+        DataMap keys = map(WatchFaceConfig.KEY_HOURS_COLOR, 0xFF00FF00);
+
+        assertTrue(UTCWatchFaceConfigListenerService.isConfigMessage(
+                new FakeMessageEvent(WatchFaceConfig.PATH_WITH_FEATURE, keys)));
+        assertFalse(UTCWatchFaceConfigListenerService.isConfigMessage(
+                new FakeMessageEvent("/other", keys)));
+    }
+
+    public void testReadsOnlyTheSentKeys() {
+        DataMap keys = map(WatchFaceConfig.KEY_HOURS_COLOR, 0xFF00FF00);
+
+        DataMap read = UTCWatchFaceConfigListenerService.readConfigKeys(
+                new FakeMessageEvent(WatchFaceConfig.PATH_WITH_FEATURE, keys));
+
+        assertEquals(1, read.keySet().size());
+        assertEquals(0xFF00FF00, read.getInt(WatchFaceConfig.KEY_HOURS_COLOR));
+    }
+
+    public void testMessageReachesThePalette() {
+        mStore.mStored.putInt(WatchFaceConfig.KEY_BACKGROUND_COLOR, 0xFF000080);
+
+        receive(map(WatchFaceConfig.KEY_HOURS_COLOR, 0xFF00FF00));
+
+        assertTrue(mApplier.apply(mStore.mStored));
+        assertEquals(0xFF000080, mPalette.getBackground());
+        assertEquals(0xFF00FF00, mPalette.getHours());
+    }
+
+    public void testRepeatedMessageChangesNothing() {
+        DataMap keys = map(WatchFaceConfig.KEY_MINUTES_COLOR, 0xFF0000FF);
+        receive(keys);
+        assertTrue(mApplier.apply(mStore.mStored));
+
+        receive(keys);
+
+        assertEquals(1, mStore.mSaves.size());
+        assertFalse(mApplier.apply(mStore.mStored));
+    }
+
+    public void testChangedKeyIsAppliedOverEarlierOnes() {
+        receive(map(WatchFaceConfig.KEY_MINUTES_COLOR, 0xFF0000FF));
+        receive(map(WatchFaceConfig.KEY_SECONDS_COLOR, 0xFFFFFF00));
+        mApplier.apply(mStore.mStored);
+
+        receive(map(WatchFaceConfig.KEY_MINUTES_COLOR, 0xFF00FF00));
+
+        assertTrue(mApplier.apply(mStore.mStored));
+        assertEquals(0xFF00FF00, mPalette.getMinuteHand());
+        assertEquals(0xFFFFFF00, mPalette.getUtcLabel());
+    }
+
+    /** Delivers {@code keys} the way {@code onMessageReceived} does. */
+    private void receive(DataMap keys) {
+        MessageEvent event = new FakeMessageEvent(WatchFaceConfig.PATH_WITH_FEATURE, keys);
+        assertTrue(UTCWatchFaceConfigListenerService.isConfigMessage(event));
+        mPublisher.overwriteKeys(UTCWatchFaceConfigListenerService.readConfigKeys(event));
+    }
+
+    private static DataMap map(String key, int value) {
+        DataMap map = new DataMap();
+        map.putInt(key, value);
+        return map;
+    }
+}